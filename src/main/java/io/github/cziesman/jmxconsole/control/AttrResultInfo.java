@@ -21,7 +21,9 @@
  */
 package io.github.cziesman.jmxconsole.control;
 
-import java.beans.PropertyEditor;
+import java.util.concurrent.TimeoutException;
+
+import io.github.cziesman.jmxconsole.util.editor.TextCodec;
 
 /**
  * A simple tuple of an mbean operation name, signature and result.
@@ -33,30 +35,59 @@ public class AttrResultInfo {
 
     public String name;
 
-    public PropertyEditor editor;
+    /**
+     * Converts the result to and from text, null when the attribute type has no text form
+     */
+    public TextCodec codec;
 
     public Object result;
 
     public Throwable throwable;
 
-    public AttrResultInfo(String name, PropertyEditor editor, Object result, Throwable throwable) {
+    /**
+     * When the result was read from the MBean
+     */
+    public long timestamp;
+
+    /**
+     * Whether the result came from the attribute value cache rather than from the MBean
+     */
+    public boolean cached;
+
+    public AttrResultInfo(String name, TextCodec codec, Object result, Throwable throwable) {
+
+        this(name, codec, result, throwable, System.currentTimeMillis());
+    }
+
+    public AttrResultInfo(String name, TextCodec codec, Object result, Throwable throwable, long timestamp) {
 
         this.name = name;
-        this.editor = editor;
+        this.codec = codec;
         this.result = result;
         this.throwable = throwable;
+        this.timestamp = timestamp;
+    }
+
+    /**
+     * @return the milliseconds since the result was read from the MBean
+     */
+    public long getAge() {
+
+        return System.currentTimeMillis() - timestamp;
     }
 
     public String getAsText() {
 
+        if (throwable instanceof TimeoutException) {
+            return throwable.getMessage();
+        }
         if (throwable != null) {
             return throwable.toString();
         }
         if (result != null) {
             try {
-                if (editor != null) {
-                    editor.setValue(result);
-                    return editor.getAsText();
+                if (codec != null) {
+                    return codec.encode(result);
                 } else {
                     return result.toString();
                 }
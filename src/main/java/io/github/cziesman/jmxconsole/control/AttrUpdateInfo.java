@@ -0,0 +1,49 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+/**
+ * A simple tuple of an mbean attribute name, the value submitted for it and the failure to
+ * set it, if any.
+ */
+public class AttrUpdateInfo {
+
+    public String name;
+
+    /**
+     * The submitted value converted to the attribute type
+     */
+    public Object value;
+
+    /**
+     * Why the attribute was not set, null when it was
+     */
+    public Throwable throwable;
+
+    public AttrUpdateInfo(String name, Object value, Throwable throwable) {
+
+        this.name = name;
+        this.value = value;
+        this.throwable = throwable;
+    }
+
+}
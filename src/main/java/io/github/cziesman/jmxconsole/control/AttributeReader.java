@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.IntStream;
+
+import javax.management.AttributeList;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Reads attributes on a bounded pool of daemon threads, waiting at most a configured time
+ * for each read.
+ *
+ * <p>A getter that never returns keeps its pool thread, but the caller gets a
+ * {@link TimeoutException} and can go on with the other attributes. When all threads are
+ * busy and the queue is full, reads fail with a {@link RejectedExecutionException} instead
+ * of blocking the caller.
+ */
+public class AttributeReader implements AttributeReaderMBean {
+
+    private final MBeanServer server;
+
+    private final int maxThreads;
+
+    private final int queueCapacity;
+
+    private final long timeout;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong reads = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param server        the MBeanServer the attributes are read from
+     * @param maxThreads    the maximum number of threads reading attributes
+     * @param queueCapacity the maximum number of reads waiting for a thread
+     * @param timeout       milliseconds to wait for a read, or 0 to wait without limit
+     */
+    public AttributeReader(MBeanServer server, int maxThreads, int queueCapacity, long timeout) {
+
+        this.server = server;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+        this.timeout = timeout;
+        this.executor = BoundedCalls.newPool("jmxconsole-attribute-reader-", maxThreads, queueCapacity);
+    }
+
+    /**
+     * Read one attribute.
+     *
+     * @param name     the ObjectName of the MBean
+     * @param attrName the name of the attribute
+     * @return the attribute value
+     * @throws TimeoutException           when the read did not complete in time
+     * @throws RejectedExecutionException when the pool is saturated
+     * @throws Exception                  whatever the MBeanServer threw
+     */
+    public Object getAttribute(final ObjectName name, final String attrName) throws Exception {
+
+        return call(() -> server.getAttribute(name, attrName));
+    }
+
+    /**
+     * Read several attributes with one getAttributes call.
+     *
+     * @param name      the ObjectName of the MBean
+     * @param attrNames the names of the attributes
+     * @return the attributes that could be read
+     * @throws TimeoutException           when the read did not complete in time
+     * @throws RejectedExecutionException when the pool is saturated
+     * @throws Exception                  whatever the MBeanServer threw
+     */
+    public AttributeList getAttributes(final ObjectName name, final String[] attrNames) throws Exception {
+
+        return call(() -> server.getAttributes(name, attrNames));
+    }
+
+    /**
+     * Read attributes one by one, with at most <code>parallelism</code> of them in flight at a
+     * time. Each read gets its own timeout, counted from the moment it is submitted; a read
+     * that timed out no longer counts against the parallelism.
+     *
+     * @param name        the ObjectName of the MBean
+     * @param attrNames   the names of the attributes
+     * @param parallelism the maximum number of attributes read at the same time
+     * @param values      receives the value of each attribute, in the order of attrNames
+     * @param failures    receives the failure of each attribute that could not be read
+     * @throws InterruptedException when the caller is interrupted while waiting
+     */
+    public void getAttributes(final ObjectName name, final String[] attrNames, int parallelism, final Object[] values, final Throwable[] failures) throws InterruptedException {
+
+        BoundedCalls.collect(executor, IntStream.range(0, attrNames.length).iterator(), parallelism, timeout, new BoundedCalls.Calls<Integer, RuntimeException>() {
+
+            public Callable<Object> call(Integer index) {
+
+                final String attrName = attrNames[index];
+                reads.incrementAndGet();
+                return () -> server.getAttribute(name, attrName);
+            }
+
+            public void rejected(Integer index) {
+
+                rejections.incrementAndGet();
+                failures[index] = new RejectedExecutionException("attribute reader pool saturated");
+            }
+
+            public void completed(Integer index, Object result, Throwable failure, long millis) {
+
+                values[index] = result;
+                failures[index] = failure;
+            }
+
+            public void timedOut(Integer index, long millis) {
+
+                timeouts.incrementAndGet();
+                failures[index] = new TimeoutException("timed out after " + timeout + " ms");
+            }
+        });
+    }
+
+    /**
+     * Stop the reader threads, interrupting reads that are still running.
+     */
+    public void stop() {
+
+        executor.shutdownNow();
+    }
+
+    public int getMaxThreads() {
+
+        return maxThreads;
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    public long getTimeout() {
+
+        return timeout;
+    }
+
+    public int getActiveThreads() {
+
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedReads() {
+
+        return executor.getQueue().size();
+    }
+
+    public long getReads() {
+
+        return reads.get();
+    }
+
+    public long getTimeouts() {
+
+        return timeouts.get();
+    }
+
+    public long getRejections() {
+
+        return rejections.get();
+    }
+
+    private <T> T call(Callable<T> read) throws Exception {
+
+        reads.incrementAndGet();
+        Future<T> future;
+        try {
+            future = executor.submit(read);
+        } catch (RejectedExecutionException e) {
+            rejections.incrementAndGet();
+            throw new RejectedExecutionException("attribute reader pool saturated");
+        }
+        try {
+            return timeout > 0 ? future.get(timeout, TimeUnit.MILLISECONDS) : future.get();
+        } catch (TimeoutException e) {
+            future.cancel(true);
+            timeouts.incrementAndGet();
+            throw new TimeoutException("timed out after " + timeout + " ms");
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw e;
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof Exception) {
+                throw (Exception) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            throw e;
+        }
+    }
+
+}
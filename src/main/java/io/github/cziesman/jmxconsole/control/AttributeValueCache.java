@@ -0,0 +1,478 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.AttributeChangeNotification;
+import javax.management.Descriptor;
+import javax.management.JMException;
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanServer;
+import javax.management.Notification;
+import javax.management.NotificationBroadcaster;
+import javax.management.NotificationFilterSupport;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A bounded, least recently used cache of attribute values keyed by ObjectName and
+ * attribute name.
+ *
+ * <p>How long a value is reused follows the <code>currencyTimeLimit</code> descriptor field
+ * of the attribute, or else of the MBean, as the Descriptor specification defines it: a
+ * negative number means the value is never cached and always read again, 0 that it is kept
+ * until invalidated and a positive number is the time to live in seconds. Without that
+ * field the configured default time to live applies. Values are dropped when their MBean
+ * is unregistered or emits an AttributeChangeNotification for them.
+ *
+ * <p>The cache listens to the attribute changes of an MBean before its values are read, and
+ * a value is only cached when no invalidation of its MBean happened since the read began.
+ * The listener is removed when the MBean is evicted.
+ */
+public class AttributeValueCache extends RegistrationListener implements AttributeValueCacheMBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(AttributeValueCache.class);
+
+    /**
+     * The descriptor field that declares how long an attribute value stays current
+     */
+    private static final String CURRENCY_TIME_LIMIT = "currencyTimeLimit";
+
+    /**
+     * The time to live of a value that is always read again
+     */
+    private static final long NOT_CACHED = 0;
+
+    /**
+     * The time to live of a value that is kept until it is invalidated
+     */
+    private static final long UNTIL_INVALIDATED = -1;
+
+    private final int maxSize;
+
+    private final long defaultTimeToLive;
+
+    /**
+     * The cached values of each MBean, the least recently used MBean first
+     */
+    private final Map<ObjectName, CachedMBean> entries;
+
+    /**
+     * The MBeans this cache listens to for attribute changes, guarded by entries
+     */
+    private final Set<ObjectName> subscribed = new HashSet<>();
+
+    /**
+     * The source of generations; every invalidation moves an MBean to a new one
+     */
+    private final AtomicLong generations = new AtomicLong();
+
+    private final NotificationListener changeListener = this::attributeChanged;
+
+    private final NotificationFilterSupport changeFilter = new NotificationFilterSupport();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param server            the MBeanServer the values are read from
+     * @param maxSize           the maximum number of MBeans whose values are cached
+     * @param defaultTimeToLive milliseconds that a value without a currencyTimeLimit may be
+     *                          reused, 0 to not cache such values
+     */
+    public AttributeValueCache(MBeanServer server, int maxSize, long defaultTimeToLive) {
+
+        super(server);
+        this.maxSize = maxSize;
+        this.defaultTimeToLive = defaultTimeToLive;
+        this.changeFilter.enableType(AttributeChangeNotification.ATTRIBUTE_CHANGE);
+        this.entries = new LinkedHashMap<ObjectName, CachedMBean>(16, 0.75f, true) {
+
+            protected boolean removeEldestEntry(Map.Entry<ObjectName, CachedMBean> eldest) {
+
+                if (size() > AttributeValueCache.this.maxSize) {
+                    evictions.addAndGet(eldest.getValue().values.size());
+                    unsubscribe(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Stop listening to registrations and attribute changes, and drop all cached values.
+     */
+    public synchronized void stop() {
+
+        super.stop();
+        synchronized (entries) {
+            for (ObjectName name : subscribed.toArray(new ObjectName[0])) {
+                unsubscribe(name);
+            }
+            entries.clear();
+        }
+    }
+
+    /**
+     * Get a cached value that is still current.
+     *
+     * @param name     the ObjectName of the MBean
+     * @param attrName the name of the attribute
+     * @return the entry, or null when no current value is cached
+     */
+    Entry get(ObjectName name, String attrName) {
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            CachedMBean mbean = entries.get(name);
+            Entry entry = mbean == null ? null : mbean.values.get(attrName);
+            if (entry != null) {
+                if (entry.expires > now) {
+                    hits.incrementAndGet();
+                    return entry;
+                }
+                mbean.values.remove(attrName);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Prepare to read attribute values of an MBean. This listens to the attribute changes of
+     * the MBean before the values are read, so no change made during the read is missed.
+     *
+     * @param name            the ObjectName of the MBean
+     * @param attributesInfo  the attributes that are going to be read
+     * @param mbeanDescriptor the descriptor of the MBean, or null
+     * @return the generation to put the values with, or -1 when none of them may be cached
+     */
+    long begin(ObjectName name, MBeanAttributeInfo[] attributesInfo, Descriptor mbeanDescriptor) {
+
+        boolean cacheable = false;
+        for (MBeanAttributeInfo attrInfo : attributesInfo) {
+            if (attrInfo.isReadable() && getTimeToLive(attrInfo, mbeanDescriptor) != NOT_CACHED) {
+                cacheable = true;
+                break;
+            }
+        }
+        if (!cacheable) {
+            return -1;
+        }
+        synchronized (entries) {
+            if (!server.isRegistered(name)) {
+                return -1;
+            }
+            CachedMBean mbean = entries.get(name);
+            if (mbean == null) {
+                mbean = new CachedMBean(generations.incrementAndGet());
+                entries.put(name, mbean);
+            }
+            subscribe(name);
+            return mbean.generation;
+        }
+    }
+
+    /**
+     * Cache a value read from an MBean, unless its currencyTimeLimit is negative, which says
+     * it is never cached, or the MBean was invalidated since the read began.
+     *
+     * @param name            the ObjectName of the MBean
+     * @param attrInfo        the attribute the value was read from
+     * @param mbeanDescriptor the descriptor of the MBean, or null
+     * @param value           the value
+     * @param timestamp       when the value was read
+     * @param generation      what {@link #begin} returned before the value was read
+     */
+    void put(ObjectName name, MBeanAttributeInfo attrInfo, Descriptor mbeanDescriptor, Object value, long timestamp, long generation) {
+
+        if (generation < 0) {
+            return;
+        }
+        long timeToLive = getTimeToLive(attrInfo, mbeanDescriptor);
+        if (timeToLive == NOT_CACHED) {
+            return;
+        }
+        long expires = timeToLive == UNTIL_INVALIDATED ? Long.MAX_VALUE : timestamp + timeToLive;
+        synchronized (entries) {
+            CachedMBean mbean = entries.get(name);
+            // an evicted, unregistered or invalidated MBean has no or another generation
+            if (mbean == null || mbean.generation != generation) {
+                return;
+            }
+            mbean.values.put(attrInfo.getName(), new Entry(value, timestamp, expires));
+        }
+    }
+
+    /**
+     * Drop the cached value of an attribute.
+     *
+     * @param name     the ObjectName of the MBean
+     * @param attrName the name of the attribute
+     */
+    public void invalidate(ObjectName name, String attrName) {
+
+        synchronized (entries) {
+            CachedMBean mbean = entries.get(name);
+            if (mbean != null) {
+                mbean.generation = generations.incrementAndGet();
+                if (mbean.values.remove(attrName) != null) {
+                    invalidations.incrementAndGet();
+                }
+            }
+        }
+    }
+
+    /**
+     * Drop all cached values of an MBean.
+     *
+     * @param name the ObjectName of the MBean
+     */
+    public void invalidate(ObjectName name) {
+
+        synchronized (entries) {
+            CachedMBean mbean = entries.get(name);
+            if (mbean != null) {
+                mbean.generation = generations.incrementAndGet();
+                invalidations.addAndGet(mbean.values.size());
+                mbean.values.clear();
+            }
+        }
+    }
+
+    public int getSize() {
+
+        int size = 0;
+        synchronized (entries) {
+            for (CachedMBean mbean : entries.values()) {
+                size += mbean.values.size();
+            }
+        }
+        return size;
+    }
+
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    public long getDefaultTimeToLive() {
+
+        return defaultTimeToLive;
+    }
+
+    public int getSubscriptions() {
+
+        synchronized (entries) {
+            return subscribed.size();
+        }
+    }
+
+    public long getHits() {
+
+        return hits.get();
+    }
+
+    public long getMisses() {
+
+        return misses.get();
+    }
+
+    public double getHitRate() {
+
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public long getEvictions() {
+
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+
+        return expirations.get();
+    }
+
+    public long getInvalidations() {
+
+        return invalidations.get();
+    }
+
+    public void clear() {
+
+        synchronized (entries) {
+            for (CachedMBean mbean : entries.values()) {
+                mbean.generation = generations.incrementAndGet();
+                mbean.values.clear();
+            }
+        }
+    }
+
+    protected void mbeanRegistered(ObjectName name) {
+        // nothing cached yet
+    }
+
+    protected void mbeanUnregistered(ObjectName name) {
+
+        synchronized (entries) {
+            CachedMBean mbean = entries.remove(name);
+            if (mbean != null) {
+                invalidations.addAndGet(mbean.values.size());
+            }
+            // the MBeanServer drops the listeners of an unregistered MBean
+            subscribed.remove(name);
+        }
+    }
+
+    /**
+     * Listen to the attribute changes of an MBean, unless already listening. Called with the
+     * lock on entries held, so a subscription and the removal on eviction cannot interleave.
+     */
+    private void subscribe(ObjectName name) {
+
+        if (!subscribed.add(name)) {
+            return;
+        }
+        try {
+            if (server.isInstanceOf(name, NotificationBroadcaster.class.getName())) {
+                server.addNotificationListener(name, changeListener, changeFilter, name);
+            }
+        } catch (JMException e) {
+            LOG.debug("Failed to listen to attribute changes of " + name, e);
+        }
+    }
+
+    /**
+     * Stop listening to the attribute changes of an MBean. Called with the lock on entries held.
+     */
+    private void unsubscribe(ObjectName name) {
+
+        if (!subscribed.remove(name)) {
+            return;
+        }
+        try {
+            if (server.isInstanceOf(name, NotificationBroadcaster.class.getName())) {
+                server.removeNotificationListener(name, changeListener, changeFilter, name);
+            }
+        } catch (JMException e) {
+            LOG.debug("Failed to remove the attribute change listener from " + name, e);
+        }
+    }
+
+    private void attributeChanged(Notification notification, Object handback) {
+
+        if (notification instanceof AttributeChangeNotification) {
+            invalidate((ObjectName) handback, ((AttributeChangeNotification) notification).getAttributeName());
+        }
+    }
+
+    /**
+     * @return the time to live in milliseconds, NOT_CACHED or UNTIL_INVALIDATED
+     */
+    private long getTimeToLive(MBeanAttributeInfo attrInfo, Descriptor mbeanDescriptor) {
+
+        Long limit = getCurrencyTimeLimit(attrInfo.getDescriptor());
+        if (limit == null) {
+            limit = getCurrencyTimeLimit(mbeanDescriptor);
+        }
+        if (limit == null) {
+            return defaultTimeToLive;
+        }
+        if (limit < 0) {
+            return NOT_CACHED;
+        }
+        return limit == 0 ? UNTIL_INVALIDATED : limit * 1000;
+    }
+
+    private static Long getCurrencyTimeLimit(Descriptor descriptor) {
+
+        if (descriptor == null) {
+            return null;
+        }
+        Object value = descriptor.getFieldValue(CURRENCY_TIME_LIMIT);
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        if (value instanceof String) {
+            try {
+                return Long.valueOf(((String) value).trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * The cached values of an MBean and the generation they belong to
+     */
+    private static class CachedMBean {
+
+        final Map<String, Entry> values = new HashMap<>();
+
+        long generation;
+
+        CachedMBean(long generation) {
+
+            this.generation = generation;
+        }
+
+    }
+
+    static class Entry {
+
+        final Object value;
+
+        final long timestamp;
+
+        final long expires;
+
+        Entry(Object value, long timestamp, long expires) {
+
+            this.value = value;
+            this.timestamp = timestamp;
+            this.expires = expires;
+        }
+
+    }
+
+}
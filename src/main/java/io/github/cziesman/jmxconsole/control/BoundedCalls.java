@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * The bounded pools of daemon threads that read attributes, run operation jobs and fan calls
+ * out to many MBeans, and the collection of calls made on them with at most a given number
+ * in flight, each waited for at most a given time.
+ */
+final class BoundedCalls {
+
+    private BoundedCalls() {
+
+    }
+
+    /**
+     * Create a pool whose threads are daemons named after a prefix and time out when idle.
+     * Submitting fails with a {@link RejectedExecutionException} when all threads are busy
+     * and the queue is full.
+     *
+     * @param prefix        the name of the threads, followed by a sequence number
+     * @param maxThreads    the maximum number of threads
+     * @param queueCapacity the maximum number of tasks waiting for a thread
+     * @return the pool
+     */
+    static ThreadPoolExecutor newPool(final String prefix, int maxThreads, int queueCapacity) {
+
+        final AtomicInteger count = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(maxThreads, maxThreads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), r -> {
+            Thread thread = new Thread(r, prefix + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        return executor;
+    }
+
+    /**
+     * Make the call of each key on the pool, with at most parallelism calls in flight, and
+     * hand each outcome to the calls on the calling thread as soon as it is known.
+     *
+     * <p>A call that does not complete within the timeout, counted from its submission, is
+     * cancelled, interrupting its thread; it may have had an effect already. Calls still in
+     * flight when the caller is interrupted or the calls fail are cancelled too.
+     *
+     * @param executor    the pool
+     * @param keys        what to call
+     * @param parallelism the maximum number of calls in flight
+     * @param timeout     milliseconds to wait for each call, or 0 to wait without limit
+     * @param calls       the call to make for each key, and the receiver of its outcome
+     * @throws InterruptedException when the caller is interrupted while waiting
+     * @throws E                    when the calls fail, which abandons the rest
+     */
+    static <K, E extends Exception> void collect(ThreadPoolExecutor executor, Iterator<K> keys, int parallelism, long timeout, Calls<K, E> calls) throws InterruptedException, E {
+
+        ExecutorCompletionService<Object> completion = new ExecutorCompletionService<>(executor);
+        Map<Future<Object>, K> pending = new HashMap<>();
+        Map<Future<Object>, Long> submitted = new LinkedHashMap<>();
+        try {
+            while (keys.hasNext() || !submitted.isEmpty()) {
+                while (keys.hasNext() && submitted.size() < parallelism) {
+                    K key = keys.next();
+                    Callable<Object> call = calls.call(key);
+                    if (call == null) {
+                        continue;
+                    }
+                    try {
+                        Future<Object> future = completion.submit(call);
+                        pending.put(future, key);
+                        submitted.put(future, System.currentTimeMillis());
+                    } catch (RejectedExecutionException e) {
+                        calls.rejected(key);
+                    }
+                }
+                if (submitted.isEmpty()) {
+                    continue;
+                }
+                Future<Object> done;
+                if (timeout > 0) {
+                    // calls are submitted in order, so the first one has the earliest deadline
+                    long wait = submitted.values().iterator().next() + timeout - System.currentTimeMillis();
+                    done = completion.poll(Math.max(0, wait), TimeUnit.MILLISECONDS);
+                } else {
+                    done = completion.take();
+                }
+                if (done != null) {
+                    Long start = submitted.remove(done);
+                    if (start == null) {
+                        // a call cancelled after it timed out
+                        continue;
+                    }
+                    K key = pending.remove(done);
+                    long millis = System.currentTimeMillis() - start;
+                    try {
+                        Object result = done.get();
+                        calls.completed(key, result, null, millis);
+                    } catch (ExecutionException e) {
+                        calls.completed(key, null, e.getCause(), millis);
+                    }
+                } else {
+                    expire(submitted, pending, timeout, calls);
+                }
+            }
+        } finally {
+            for (Future<Object> future : submitted.keySet()) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    private static <K, E extends Exception> void expire(Map<Future<Object>, Long> submitted, Map<Future<Object>, K> pending, long timeout, Calls<K, E> calls) throws E {
+
+        long now = System.currentTimeMillis();
+        Iterator<Map.Entry<Future<Object>, Long>> entries = submitted.entrySet().iterator();
+        while (entries.hasNext()) {
+            Map.Entry<Future<Object>, Long> entry = entries.next();
+            if (entry.getValue() + timeout > now) {
+                break;
+            }
+            Future<Object> future = entry.getKey();
+            future.cancel(true);
+            entries.remove();
+            calls.timedOut(pending.remove(future), now - entry.getValue());
+        }
+    }
+
+    /**
+     * The call to make for each key, and the receiver of its outcome.
+     *
+     * @param <K> what is called
+     * @param <E> what the receiver may throw
+     */
+    interface Calls<K, E extends Exception> {
+
+        /**
+         * @param key the key
+         * @return the call to make, or null when the key is not to be called
+         */
+        Callable<Object> call(K key) throws E;
+
+        /**
+         * The call of a key was not made because the pool is saturated.
+         *
+         * @param key the key
+         */
+        void rejected(K key) throws E;
+
+        /**
+         * @param key     the key
+         * @param result  what the call returned, null when it failed
+         * @param failure why the call failed, null when it succeeded
+         * @param millis  how long the call took
+         */
+        void completed(K key, Object result, Throwable failure, long millis) throws E;
+
+        /**
+         * The call of a key did not complete in time and was cancelled.
+         *
+         * @param key    the key
+         * @param millis how long was waited for the call
+         */
+        void timedOut(K key, long millis) throws E;
+
+    }
+
+}
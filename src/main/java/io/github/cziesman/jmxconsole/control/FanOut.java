@@ -0,0 +1,215 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.ObjectName;
+
+/**
+ * Calls many MBeans, invoking an operation or setting attributes on each, on a bounded pool
+ * of daemon threads, with at most a given number of calls in flight and a timeout for each
+ * of them. The outcome of each target is handed to a listener on the calling thread as soon
+ * as it is known, so it can be streamed to the client.
+ *
+ * <p>A target whose call does not return in time has its call interrupted and is reported as
+ * timed out rather than failed, since the call may have taken effect already; when all
+ * threads are busy and the queue is full, targets fail with a
+ * {@link RejectedExecutionException}.
+ */
+public class FanOut implements FanOutMBean {
+
+    private final int maxThreads;
+
+    private final int queueCapacity;
+
+    private final ThreadPoolExecutor executor;
+
+    private final AtomicLong calls = new AtomicLong();
+
+    private final AtomicLong failures = new AtomicLong();
+
+    private final AtomicLong timeouts = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param maxThreads    the maximum number of threads calling MBeans
+     * @param queueCapacity the maximum number of calls waiting for a thread
+     */
+    public FanOut(int maxThreads, int queueCapacity) {
+
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+        this.executor = BoundedCalls.newPool("jmxconsole-fan-out-", maxThreads, queueCapacity);
+    }
+
+    /**
+     * Call each target, handing each outcome to the listener as it completes. Targets that
+     * already carry a failure are reported without being called.
+     *
+     * @param targets     the targets
+     * @param parallelism the maximum number of calls in flight
+     * @param timeout     milliseconds to wait for each call, counted from its submission, or 0
+     *                    to wait without limit
+     * @param listener    receives the outcome of each target, on the calling thread
+     * @throws InterruptedException when the caller is interrupted while waiting
+     * @throws IOException          when the listener fails, which abandons the rest
+     */
+    public void invoke(List<Target> targets, int parallelism, long timeout, final Listener listener) throws InterruptedException, IOException {
+
+        BoundedCalls.collect(executor, targets.iterator(), parallelism, timeout, new BoundedCalls.Calls<Target, IOException>() {
+
+            public Callable<Object> call(Target target) throws IOException {
+
+                if (target.failure != null) {
+                    failures.incrementAndGet();
+                    listener.completed(target.name, null, target.failure, 0);
+                    return null;
+                }
+                calls.incrementAndGet();
+                return target.call;
+            }
+
+            public void rejected(Target target) throws IOException {
+
+                rejections.incrementAndGet();
+                failures.incrementAndGet();
+                listener.completed(target.name, null, new RejectedExecutionException("fan out pool saturated"), 0);
+            }
+
+            public void completed(Target target, Object result, Throwable failure, long millis) throws IOException {
+
+                if (failure != null) {
+                    failures.incrementAndGet();
+                }
+                listener.completed(target.name, result, failure, millis);
+            }
+
+            public void timedOut(Target target, long millis) throws IOException {
+
+                timeouts.incrementAndGet();
+                listener.timedOut(target.name, millis);
+            }
+        });
+    }
+
+    /**
+     * Stop the threads, interrupting calls that are still running.
+     */
+    public void stop() {
+
+        executor.shutdownNow();
+    }
+
+    public int getMaxThreads() {
+
+        return maxThreads;
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    public int getActiveThreads() {
+
+        return executor.getActiveCount();
+    }
+
+    public long getCalls() {
+
+        return calls.get();
+    }
+
+    public long getFailures() {
+
+        return failures.get();
+    }
+
+    public long getTimeouts() {
+
+        return timeouts.get();
+    }
+
+    public long getRejections() {
+
+        return rejections.get();
+    }
+
+    /**
+     * Receives the outcome of each target.
+     */
+    public interface Listener {
+
+        /**
+         * @param name    the ObjectName of the target
+         * @param result  what the call returned, null when it failed
+         * @param failure why the call failed, null when it succeeded
+         * @param millis  how long the call took
+         */
+        void completed(ObjectName name, Object result, Throwable failure, long millis) throws IOException;
+
+        /**
+         * The call did not return in time and was interrupted. It may have taken effect
+         * anyway, so its outcome is unknown.
+         *
+         * @param name   the ObjectName of the target
+         * @param millis how long was waited for the call
+         */
+        void timedOut(ObjectName name, long millis) throws IOException;
+
+    }
+
+    /**
+     * An MBean with the call to make on it, or with the failure that prevents calling it.
+     */
+    public static final class Target {
+
+        final ObjectName name;
+
+        final Callable<Object> call;
+
+        final Throwable failure;
+
+        public Target(ObjectName name, Callable<Object> call) {
+
+            this.name = name;
+            this.call = call;
+            this.failure = null;
+        }
+
+        public Target(ObjectName name, Throwable failure) {
+
+            this.name = name;
+            this.call = null;
+            this.failure = failure;
+        }
+
+    }
+
+}
@@ -0,0 +1,62 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+/**
+ * Management interface of the {@link FanOut}.
+ */
+public interface FanOutMBean {
+
+    /**
+     * @return the maximum number of threads calling MBeans
+     */
+    int getMaxThreads();
+
+    /**
+     * @return the maximum number of calls waiting for a thread
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return the number of threads currently calling an MBean
+     */
+    int getActiveThreads();
+
+    long getCalls();
+
+    /**
+     * @return the number of targets that failed or were rejected; timed out calls are counted
+     *         apart since their outcome is unknown
+     */
+    long getFailures();
+
+    /**
+     * @return the number of calls abandoned because they did not complete in time
+     */
+    long getTimeouts();
+
+    /**
+     * @return the number of calls refused because the pool was saturated
+     */
+    long getRejections();
+
+}
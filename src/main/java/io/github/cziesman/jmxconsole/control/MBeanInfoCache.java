@@ -0,0 +1,225 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.Descriptor;
+import javax.management.JMException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * A bounded, least recently used cache of MBeanInfo keyed by ObjectName.
+ *
+ * <p>MBeanInfo whose descriptor declares <code>immutableInfo=true</code> is kept until the
+ * MBean is unregistered or the entry is evicted; any other MBeanInfo is only reused for
+ * the configured time to live. Entries are dropped when a registration or unregistration
+ * notification of their MBean arrives.
+ */
+public class MBeanInfoCache extends RegistrationListener implements MBeanInfoCacheMBean {
+
+    /**
+     * The descriptor field that marks MBeanInfo as never changing
+     */
+    private static final String IMMUTABLE_INFO = "immutableInfo";
+
+    private final int maxSize;
+
+    private final long timeToLive;
+
+    private final Map<ObjectName, Entry> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong expirations = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param server     the MBeanServer the MBeanInfo is read from
+     * @param maxSize    the maximum number of cached entries
+     * @param timeToLive milliseconds that MBeanInfo not declared immutable may be reused
+     */
+    public MBeanInfoCache(MBeanServer server, int maxSize, long timeToLive) {
+
+        super(server);
+        this.maxSize = maxSize;
+        this.timeToLive = timeToLive;
+        this.entries = new LinkedHashMap<ObjectName, Entry>(16, 0.75f, true) {
+
+            protected boolean removeEldestEntry(Map.Entry<ObjectName, Entry> eldest) {
+
+                if (size() > MBeanInfoCache.this.maxSize) {
+                    evictions.incrementAndGet();
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the MBeanInfo of an MBean, from the cache when a current entry exists.
+     *
+     * @param name the ObjectName of the MBean
+     * @return the MBeanInfo
+     * @throws JMException when the MBeanServer fails to provide the MBeanInfo
+     */
+    public MBeanInfo get(ObjectName name) throws JMException {
+
+        long now = System.currentTimeMillis();
+        synchronized (entries) {
+            Entry entry = entries.get(name);
+            if (entry != null) {
+                if (entry.expires > now) {
+                    hits.incrementAndGet();
+                    return entry.info;
+                }
+                entries.remove(name);
+                expirations.incrementAndGet();
+            }
+        }
+        misses.incrementAndGet();
+        MBeanInfo info = server.getMBeanInfo(name);
+        long expires = isImmutable(info) ? Long.MAX_VALUE : now + timeToLive;
+        synchronized (entries) {
+            // don't resurrect an entry for an MBean that went away while we fetched its info
+            if (server.isRegistered(name)) {
+                entries.put(name, new Entry(info, expires));
+            }
+        }
+        return info;
+    }
+
+    /**
+     * Drop the cached MBeanInfo of an MBean.
+     *
+     * @param name the ObjectName of the MBean
+     */
+    public void invalidate(ObjectName name) {
+
+        synchronized (entries) {
+            if (entries.remove(name) != null) {
+                invalidations.incrementAndGet();
+            }
+        }
+    }
+
+    public int getSize() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    public long getTimeToLive() {
+
+        return timeToLive;
+    }
+
+    public long getHits() {
+
+        return hits.get();
+    }
+
+    public long getMisses() {
+
+        return misses.get();
+    }
+
+    public double getHitRate() {
+
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public long getEvictions() {
+
+        return evictions.get();
+    }
+
+    public long getExpirations() {
+
+        return expirations.get();
+    }
+
+    public long getInvalidations() {
+
+        return invalidations.get();
+    }
+
+    public void clear() {
+
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    protected void mbeanRegistered(ObjectName name) {
+        // an MBean unregistered and registered again before we saw the unregistration
+        invalidate(name);
+    }
+
+    protected void mbeanUnregistered(ObjectName name) {
+
+        invalidate(name);
+    }
+
+    private static boolean isImmutable(MBeanInfo info) {
+
+        Descriptor descriptor = info.getDescriptor();
+        if (descriptor == null) {
+            return false;
+        }
+        Object value = descriptor.getFieldValue(IMMUTABLE_INFO);
+        return Boolean.TRUE.equals(value) || "true".equalsIgnoreCase(String.valueOf(value));
+    }
+
+    private static class Entry {
+
+        final MBeanInfo info;
+
+        final long expires;
+
+        Entry(MBeanInfo info, long expires) {
+
+            this.info = info;
+            this.expires = expires;
+        }
+
+    }
+
+}
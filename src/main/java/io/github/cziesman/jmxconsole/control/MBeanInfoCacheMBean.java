@@ -0,0 +1,73 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+/**
+ * Management interface of the {@link MBeanInfoCache}.
+ */
+public interface MBeanInfoCacheMBean {
+
+    /**
+     * @return the number of cached MBeanInfo entries
+     */
+    int getSize();
+
+    /**
+     * @return the maximum number of cached MBeanInfo entries
+     */
+    int getMaxSize();
+
+    /**
+     * @return the time to live in milliseconds of MBeanInfo that is not declared immutable
+     */
+    long getTimeToLive();
+
+    long getHits();
+
+    long getMisses();
+
+    /**
+     * @return hits / (hits + misses), or 0 when the cache has not been used
+     */
+    double getHitRate();
+
+    /**
+     * @return the number of entries dropped to keep the cache within its maximum size
+     */
+    long getEvictions();
+
+    /**
+     * @return the number of entries dropped because their time to live had passed
+     */
+    long getExpirations();
+
+    /**
+     * @return the number of entries dropped because their MBean was unregistered
+     */
+    long getInvalidations();
+
+    /**
+     * Drop all cached entries.
+     */
+    void clear();
+
+}
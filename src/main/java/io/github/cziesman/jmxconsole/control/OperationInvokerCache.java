@@ -0,0 +1,321 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.IntrospectionException;
+import javax.management.JMException;
+import javax.management.MBeanInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.ReflectionException;
+
+import io.github.cziesman.jmxconsole.util.TypeCache;
+import io.github.cziesman.jmxconsole.util.editor.TextCodec;
+import io.github.cziesman.jmxconsole.util.editor.TextCodecs;
+
+/**
+ * A bounded, least recently used cache of operation invokers keyed by ObjectName and
+ * operation, either its index in the MBeanInfo or its name and signature.
+ *
+ * <p>An invoker holds the resolved signature of its operation and the codec of each
+ * parameter, so invoking it only converts the arguments and calls the MBeanServer.
+ * Invokers found by index are only reused with the MBeanInfo they were built from, and all
+ * invokers of an MBean are dropped when it is unregistered.
+ */
+public class OperationInvokerCache extends RegistrationListener implements OperationInvokerCacheMBean {
+
+    private final int maxSize;
+
+    /**
+     * The invokers of each MBean, the least recently used MBean first
+     */
+    private final Map<ObjectName, Map<Object, Invoker>> entries;
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong evictions = new AtomicLong();
+
+    private final AtomicLong invalidations = new AtomicLong();
+
+    /**
+     * @param server  the MBeanServer the operations are invoked on
+     * @param maxSize the maximum number of MBeans whose invokers are cached
+     */
+    public OperationInvokerCache(MBeanServer server, int maxSize) {
+
+        super(server);
+        this.maxSize = maxSize;
+        this.entries = new LinkedHashMap<ObjectName, Map<Object, Invoker>>(16, 0.75f, true) {
+
+            protected boolean removeEldestEntry(Map.Entry<ObjectName, Map<Object, Invoker>> eldest) {
+
+                if (size() > OperationInvokerCache.this.maxSize) {
+                    evictions.addAndGet(eldest.getValue().size());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Get the invoker of an operation given its index into the MBeanOperationInfo[] of the
+     * MBean.
+     *
+     * @param name  the ObjectName of the MBean
+     * @param index the index of the operation
+     * @param info  the current MBeanInfo of the MBean
+     * @return the invoker
+     * @throws JMException when a parameter type cannot be loaded or converted from text
+     */
+    public Invoker get(ObjectName name, int index, MBeanInfo info) throws JMException {
+
+        Invoker invoker = lookup(name, index);
+        if (invoker != null && invoker.info == info) {
+            hits.incrementAndGet();
+            return invoker;
+        }
+        misses.incrementAndGet();
+        MBeanOperationInfo op = info.getOperations()[index];
+        MBeanParameterInfo[] paramInfo = op.getSignature();
+        String[] signature = new String[paramInfo.length];
+        for (int p = 0; p < paramInfo.length; p++) {
+            signature[p] = paramInfo[p].getType();
+        }
+        return store(name, index, new Invoker(op.getName(), signature, info));
+    }
+
+    /**
+     * Get the invoker of an operation given its name and signature.
+     *
+     * @param name      the ObjectName of the MBean
+     * @param opName    the name of the operation
+     * @param signature the parameter types, null for none
+     * @return the invoker
+     * @throws JMException when a parameter type cannot be loaded or converted from text
+     */
+    public Invoker get(ObjectName name, String opName, String[] signature) throws JMException {
+
+        String[] types = signature != null ? signature : new String[0];
+        Object key = Arrays.asList(opName, Arrays.asList(types));
+        Invoker invoker = lookup(name, key);
+        if (invoker != null) {
+            hits.incrementAndGet();
+            return invoker;
+        }
+        misses.incrementAndGet();
+        return store(name, key, new Invoker(opName, types.clone(), null));
+    }
+
+    private Invoker lookup(ObjectName name, Object key) {
+
+        synchronized (entries) {
+            Map<Object, Invoker> invokers = entries.get(name);
+            return invokers != null ? invokers.get(key) : null;
+        }
+    }
+
+    private Invoker store(ObjectName name, Object key, Invoker invoker) {
+
+        synchronized (entries) {
+            // don't resurrect the invokers of an MBean that went away while we built this one
+            if (server.isRegistered(name)) {
+                entries.computeIfAbsent(name, n -> new HashMap<>()).put(key, invoker);
+            }
+        }
+        return invoker;
+    }
+
+    /**
+     * Drop the invokers of an MBean.
+     *
+     * @param name the ObjectName of the MBean
+     */
+    public void invalidate(ObjectName name) {
+
+        synchronized (entries) {
+            Map<Object, Invoker> invokers = entries.remove(name);
+            if (invokers != null) {
+                invalidations.addAndGet(invokers.size());
+            }
+        }
+    }
+
+    public int getSize() {
+
+        synchronized (entries) {
+            return entries.size();
+        }
+    }
+
+    public int getMaxSize() {
+
+        return maxSize;
+    }
+
+    public long getHits() {
+
+        return hits.get();
+    }
+
+    public long getMisses() {
+
+        return misses.get();
+    }
+
+    public double getHitRate() {
+
+        long h = hits.get();
+        long total = h + misses.get();
+        return total == 0 ? 0 : (double) h / total;
+    }
+
+    public long getEvictions() {
+
+        return evictions.get();
+    }
+
+    public long getInvalidations() {
+
+        return invalidations.get();
+    }
+
+    public void clear() {
+
+        synchronized (entries) {
+            entries.clear();
+        }
+    }
+
+    protected void mbeanRegistered(ObjectName name) {
+        // nothing cached yet
+    }
+
+    protected void mbeanUnregistered(ObjectName name) {
+
+        invalidate(name);
+    }
+
+    /**
+     * An operation with its signature resolved and the codecs of its parameters found.
+     * Invokers hold no per call state and are shared between threads.
+     */
+    public static final class Invoker {
+
+        private final String opName;
+
+        private final String[] signature;
+
+        /**
+         * The codec of each parameter, null for a java.lang.Object parameter without one,
+         * which receives the text itself
+         */
+        private final TextCodec[] codecs;
+
+        /**
+         * The MBeanInfo an invoker found by index was built from, null otherwise
+         */
+        private final MBeanInfo info;
+
+        Invoker(String opName, String[] signature, MBeanInfo info) throws JMException {
+
+            this.opName = opName;
+            this.signature = signature;
+            this.info = info;
+            this.codecs = new TextCodec[signature.length];
+            for (int p = 0; p < signature.length; p++) {
+                Class<?> type;
+                try {
+                    type = TypeCache.loadClass(signature[p]);
+                } catch (ClassNotFoundException e) {
+                    throw new ReflectionException(e, "Failed to load class for arg" + p);
+                }
+                codecs[p] = TextCodecs.find(type);
+                // If the type is not java.lang.Object throw an exception
+                if (codecs[p] == null && !signature[p].equals("java.lang.Object")) {
+                    throw new IntrospectionException("Failed to find PropertyEditor for type: " + signature[p]);
+                }
+            }
+        }
+
+        public String getName() {
+
+            return opName;
+        }
+
+        /**
+         * Convert the arguments and invoke the operation.
+         *
+         * @param server the MBeanServer
+         * @param name   the ObjectName of the MBean
+         * @param args   the arguments as text, one per parameter
+         * @return the operation and its result
+         */
+        public OpResultInfo invoke(MBeanServer server, ObjectName name, String[] args) throws JMException {
+
+            return invoke(server, name, args, convert(args));
+        }
+
+        /**
+         * Invoke the operation with arguments already converted.
+         *
+         * @param server    the MBeanServer
+         * @param name      the ObjectName of the MBean
+         * @param args      the arguments as text, reported with the result
+         * @param typedArgs the arguments converted by {@link #convert(String[])}
+         * @return the operation and its result
+         */
+        public OpResultInfo invoke(MBeanServer server, ObjectName name, String[] args, Object[] typedArgs) throws JMException {
+
+            Object opReturn = server.invoke(name, opName, typedArgs, signature);
+            return new OpResultInfo(opName, signature, args, opReturn);
+        }
+
+        /**
+         * Convert arguments to the parameter types of the operation.
+         *
+         * @param args the arguments as text, one per parameter
+         * @return the converted arguments
+         */
+        public Object[] convert(String[] args) {
+
+            Object[] typedArgs = new Object[codecs.length];
+            for (int p = 0; p < codecs.length; p++) {
+                // Just use the String arg when there is no codec
+                typedArgs[p] = codecs[p] != null ? codecs[p].decode(args[p]) : args[p];
+            }
+            return typedArgs;
+        }
+
+    }
+
+}
@@ -0,0 +1,327 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+/**
+ * Runs operations in the background on a bounded pool of daemon threads, as jobs that are
+ * looked up by an id to get their result or to cancel them.
+ *
+ * <p>When all threads are busy and the queue is full, submitting fails with a
+ * {@link RejectedExecutionException}. Cancelling a job interrupts the thread running its
+ * operation. Finished jobs are kept for a configured time, and at most a configured number
+ * of them; the oldest are dropped first.
+ */
+public class OperationJobs implements OperationJobsMBean {
+
+    private final MBeanServer server;
+
+    private final int maxThreads;
+
+    private final int queueCapacity;
+
+    private final int maxFinished;
+
+    private final long retention;
+
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * All jobs by id, the oldest first
+     */
+    private final Map<String, Job> jobs = new LinkedHashMap<>();
+
+    private final AtomicLong submitted = new AtomicLong();
+
+    private final AtomicLong cancellations = new AtomicLong();
+
+    private final AtomicLong rejections = new AtomicLong();
+
+    /**
+     * @param server        the MBeanServer the operations are invoked on
+     * @param maxThreads    the maximum number of operations running at the same time
+     * @param queueCapacity the maximum number of operations waiting for a thread
+     * @param maxFinished   the maximum number of finished jobs kept
+     * @param retention     milliseconds a finished job is kept
+     */
+    public OperationJobs(MBeanServer server, int maxThreads, int queueCapacity, int maxFinished, long retention) {
+
+        this.server = server;
+        this.maxThreads = maxThreads;
+        this.queueCapacity = queueCapacity;
+        this.maxFinished = maxFinished;
+        this.retention = retention;
+        this.executor = BoundedCalls.newPool("jmxconsole-operation-", maxThreads, queueCapacity);
+    }
+
+    /**
+     * Convert the arguments and start invoking an operation in the background.
+     *
+     * @param invoker the invoker of the operation
+     * @param name    the ObjectName of the MBean
+     * @param args    the arguments as text
+     * @return the job
+     * @throws RejectedExecutionException when the pool is saturated
+     */
+    public Job submit(final OperationInvokerCache.Invoker invoker, final ObjectName name, final String[] args) {
+
+        final Object[] typedArgs = invoker.convert(args);
+        Job job = new Job(UUID.randomUUID().toString(), name, invoker.getName(), () -> invoker.invoke(server, name, args, typedArgs));
+        synchronized (jobs) {
+            purge(System.currentTimeMillis());
+            try {
+                executor.execute(job);
+            } catch (RejectedExecutionException e) {
+                rejections.incrementAndGet();
+                throw new RejectedExecutionException("operation job pool saturated");
+            }
+            jobs.put(job.getId(), job);
+        }
+        submitted.incrementAndGet();
+        return job;
+    }
+
+    /**
+     * @param id the id of the job
+     * @return the job, or null when there is no such job or it is no longer kept
+     */
+    public Job get(String id) {
+
+        synchronized (jobs) {
+            purge(System.currentTimeMillis());
+            return jobs.get(id);
+        }
+    }
+
+    /**
+     * Cancel a job, interrupting its operation when it is running.
+     *
+     * @param id the id of the job
+     * @return whether the job was cancelled, false when it had already finished
+     */
+    public boolean cancel(String id) {
+
+        Job job = get(id);
+        if (job != null && job.cancel(true)) {
+            cancellations.incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Stop the job threads, interrupting operations that are still running.
+     */
+    public void stop() {
+
+        executor.shutdownNow();
+        synchronized (jobs) {
+            jobs.clear();
+        }
+    }
+
+    public int getMaxThreads() {
+
+        return maxThreads;
+    }
+
+    public int getQueueCapacity() {
+
+        return queueCapacity;
+    }
+
+    public int getMaxFinished() {
+
+        return maxFinished;
+    }
+
+    public long getRetention() {
+
+        return retention;
+    }
+
+    public int getRunningJobs() {
+
+        return executor.getActiveCount();
+    }
+
+    public int getQueuedJobs() {
+
+        return executor.getQueue().size();
+    }
+
+    public int getFinishedJobs() {
+
+        synchronized (jobs) {
+            int finished = 0;
+            for (Job job : jobs.values()) {
+                if (job.isDone()) {
+                    finished++;
+                }
+            }
+            return finished;
+        }
+    }
+
+    public long getSubmitted() {
+
+        return submitted.get();
+    }
+
+    public long getCancellations() {
+
+        return cancellations.get();
+    }
+
+    public long getRejections() {
+
+        return rejections.get();
+    }
+
+    public void clear() {
+
+        synchronized (jobs) {
+            jobs.values().removeIf(Job::isDone);
+        }
+    }
+
+    /**
+     * Drop the finished jobs past their retention, and the oldest finished jobs beyond the
+     * maximum number kept. Called holding the lock of the jobs.
+     */
+    private void purge(long now) {
+
+        List<Job> finished = new ArrayList<>();
+        Iterator<Job> it = jobs.values().iterator();
+        while (it.hasNext()) {
+            Job job = it.next();
+            // done() records the finish time only after the job became done
+            long finishedAt = job.getFinished();
+            if (job.isDone() && finishedAt != 0) {
+                if (now - finishedAt > retention) {
+                    it.remove();
+                } else {
+                    finished.add(job);
+                }
+            }
+        }
+        for (int i = 0; i < finished.size() - maxFinished; i++) {
+            jobs.remove(finished.get(i).getId());
+        }
+    }
+
+    /**
+     * An operation invoked in the background.
+     */
+    public static final class Job extends FutureTask<OpResultInfo> {
+
+        private final String id;
+
+        private final ObjectName name;
+
+        private final String opName;
+
+        private final long started = System.currentTimeMillis();
+
+        private volatile long finished;
+
+        Job(String id, ObjectName name, String opName, Callable<OpResultInfo> operation) {
+
+            super(operation);
+            this.id = id;
+            this.name = name;
+            this.opName = opName;
+        }
+
+        public String getId() {
+
+            return id;
+        }
+
+        public ObjectName getName() {
+
+            return name;
+        }
+
+        public String getOpName() {
+
+            return opName;
+        }
+
+        /**
+         * @return when the job was submitted
+         */
+        public long getStarted() {
+
+            return started;
+        }
+
+        /**
+         * @return when the job finished, 0 while it has not
+         */
+        public long getFinished() {
+
+            return finished;
+        }
+
+        /**
+         * @return the result of the finished operation
+         * @throws Exception the failure of the operation, CancellationException when the
+         *                   job was cancelled
+         */
+        public OpResultInfo getResult() throws Exception {
+
+            try {
+                return get(0, TimeUnit.MILLISECONDS);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof Exception) {
+                    throw (Exception) cause;
+                }
+                throw e;
+            }
+        }
+
+        protected void done() {
+
+            finished = System.currentTimeMillis();
+        }
+
+    }
+
+}
@@ -0,0 +1,78 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+/**
+ * Management interface of the {@link OperationJobs}.
+ */
+public interface OperationJobsMBean {
+
+    /**
+     * @return the maximum number of operations running at the same time
+     */
+    int getMaxThreads();
+
+    /**
+     * @return the maximum number of operations waiting for a thread
+     */
+    int getQueueCapacity();
+
+    /**
+     * @return the maximum number of finished jobs kept
+     */
+    int getMaxFinished();
+
+    /**
+     * @return milliseconds a finished job is kept
+     */
+    long getRetention();
+
+    /**
+     * @return the number of operations currently running
+     */
+    int getRunningJobs();
+
+    /**
+     * @return the number of operations waiting for a thread
+     */
+    int getQueuedJobs();
+
+    /**
+     * @return the number of finished jobs kept
+     */
+    int getFinishedJobs();
+
+    long getSubmitted();
+
+    long getCancellations();
+
+    /**
+     * @return the number of jobs refused because the pool was saturated
+     */
+    long getRejections();
+
+    /**
+     * Drop all finished jobs.
+     */
+    void clear();
+
+}
@@ -0,0 +1,127 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.MBeanServerDelegate;
+import javax.management.MBeanServerNotification;
+import javax.management.Notification;
+import javax.management.NotificationListener;
+import javax.management.ObjectName;
+import javax.management.relation.MBeanServerNotificationFilter;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Base class for the console components that follow MBean registrations and
+ * unregistrations through the notifications of the MBeanServerDelegate.
+ */
+public abstract class RegistrationListener implements NotificationListener {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegistrationListener.class);
+
+    protected final MBeanServer server;
+
+    private final AtomicLong registrationChanges = new AtomicLong();
+
+    private boolean started;
+
+    protected RegistrationListener(MBeanServer server) {
+
+        this.server = server;
+    }
+
+    /**
+     * Subscribe to the registration notifications of the MBeanServerDelegate.
+     */
+    public synchronized void start() throws JMException {
+
+        if (!started) {
+            MBeanServerNotificationFilter filter = new MBeanServerNotificationFilter();
+            filter.enableAllObjectNames();
+            server.addNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this, filter, null);
+            started = true;
+        }
+    }
+
+    /**
+     * Remove the subscription to the MBeanServerDelegate.
+     */
+    public synchronized void stop() {
+
+        if (started) {
+            try {
+                server.removeNotificationListener(MBeanServerDelegate.DELEGATE_NAME, this);
+            } catch (JMException e) {
+                LOG.debug("Failed to remove registration listener", e);
+            }
+            started = false;
+        }
+    }
+
+    /**
+     * @return the number of registrations and unregistrations seen since the subscription
+     */
+    public long getRegistrationChanges() {
+
+        return registrationChanges.get();
+    }
+
+    public void handleNotification(Notification notification, Object handback) {
+
+        if (!(notification instanceof MBeanServerNotification)) {
+            return;
+        }
+        ObjectName name = ((MBeanServerNotification) notification).getMBeanName();
+        String type = notification.getType();
+        try {
+            if (MBeanServerNotification.REGISTRATION_NOTIFICATION.equals(type)) {
+                registrationChanges.incrementAndGet();
+                mbeanRegistered(name);
+            } else if (MBeanServerNotification.UNREGISTRATION_NOTIFICATION.equals(type)) {
+                registrationChanges.incrementAndGet();
+                mbeanUnregistered(name);
+            }
+        } catch (RuntimeException e) {
+            LOG.warn("Failed to process " + type + " for " + name, e);
+        }
+    }
+
+    /**
+     * Called after an MBean has been registered.
+     *
+     * @param name the ObjectName of the new MBean
+     */
+    protected abstract void mbeanRegistered(ObjectName name);
+
+    /**
+     * Called after an MBean has been unregistered.
+     *
+     * @param name the ObjectName of the removed MBean
+     */
+    protected abstract void mbeanUnregistered(ObjectName name);
+
+}
@@ -0,0 +1,277 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.github.cziesman.jmxconsole.model.DomainData;
+import io.github.cziesman.jmxconsole.model.DomainDataPage;
+import io.github.cziesman.jmxconsole.model.MBeanData;
+
+/**
+ * A sorted, in-memory index of the ObjectNames registered in an MBeanServer. The index is
+ * built once when started and then kept current from the registration and unregistration
+ * notifications of the MBeanServerDelegate, so listing and filtering the registry does
+ * not need to query the MBeanServer.
+ *
+ * <p>Every lookup compares the size of the index with {@link MBeanServer#getMBeanCount()}.
+ * A lookup where both agree counts as a hit; otherwise it counts as a miss and the index
+ * is reconciled with a fresh queryNames snapshot before answering.
+ */
+public class RegistryIndex extends RegistrationListener implements RegistryIndexMBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(RegistryIndex.class);
+
+    /**
+     * domain name -> canonical key property list -> MBeanData
+     */
+    private final ConcurrentSkipListMap<String, ConcurrentSkipListMap<String, MBeanData>> domains = new ConcurrentSkipListMap<>();
+
+    private final AtomicInteger size = new AtomicInteger();
+
+    private final AtomicLong generation = new AtomicLong();
+
+    private final AtomicLong hits = new AtomicLong();
+
+    private final AtomicLong misses = new AtomicLong();
+
+    private final AtomicLong resyncs = new AtomicLong();
+
+    public RegistryIndex(MBeanServer server) {
+
+        super(server);
+    }
+
+    /**
+     * Subscribe to registration notifications, then populate the index.
+     */
+    public void start() throws JMException {
+
+        super.start();
+        resync();
+    }
+
+    public int getSize() {
+
+        return size.get();
+    }
+
+    public long getGeneration() {
+
+        return generation.get();
+    }
+
+    public long getHits() {
+
+        return hits.get();
+    }
+
+    public long getMisses() {
+
+        return misses.get();
+    }
+
+    public long getResyncs() {
+
+        return resyncs.get();
+    }
+
+    /**
+     * Add the MBeans missing from the index and drop the ones that are no longer registered.
+     */
+    public void resync() {
+
+        resyncs.incrementAndGet();
+        Set<ObjectName> names = server.queryNames(null, null);
+        for (ObjectName name : names) {
+            if (!contains(name)) {
+                index(name);
+            }
+        }
+        for (Map<String, MBeanData> domain : domains.values()) {
+            for (MBeanData data : domain.values()) {
+                ObjectName name = data.getObjectName();
+                if (!names.contains(name)) {
+                    mbeanUnregistered(name);
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the indexed MBeans matching the given ObjectName pattern, grouped and sorted by domain.
+     *
+     * @param pattern        the ObjectName pattern, or null for all MBeans
+     * @param omittedDomains domains that are never returned
+     * @return the matching MBeans
+     */
+    public List<DomainData> query(ObjectName pattern, Collection<String> omittedDomains) {
+
+        return page(pattern, omittedDomains, null, Integer.MAX_VALUE).getDomains();
+    }
+
+    /**
+     * Get at most pageSize indexed MBeans matching the given ObjectName pattern, starting
+     * after the position of the cursor. Only the returned slice is materialized.
+     *
+     * @param pattern        the ObjectName pattern, or null for all MBeans
+     * @param omittedDomains domains that are never returned
+     * @param cursor         the cursor returned with the previous page, or null for the first page
+     * @param pageSize       the maximum number of MBeans on the page
+     * @return the page and the cursor of the next one
+     */
+    public DomainDataPage page(ObjectName pattern, Collection<String> omittedDomains, String cursor, int pageSize) {
+
+        verify();
+        NavigableMap<String, ConcurrentSkipListMap<String, MBeanData>> candidates = domains;
+        String domain = null;
+        if (pattern != null && !pattern.isDomainPattern()) {
+            domain = pattern.getDomain();
+            candidates = domains.subMap(domain, true, domain, true);
+        }
+        String cursorDomain = null;
+        String cursorProperties = null;
+        if (cursor != null) {
+            String[] position = DomainDataPage.decodeCursor(cursor);
+            // a cursor of another listing, e.g. from before the filter changed, may fall
+            // outside the domain: before it the page starts over, past it nothing is left
+            if (domain != null && position[0].compareTo(domain) > 0) {
+                return new DomainDataPage(new ArrayList<>(), null);
+            }
+            if (domain == null || position[0].equals(domain)) {
+                cursorDomain = position[0];
+                cursorProperties = position[1];
+                candidates = candidates.tailMap(cursorDomain, true);
+            }
+        }
+        List<DomainData> result = new ArrayList<>();
+        MBeanData last = null;
+        int count = 0;
+        for (Map.Entry<String, ConcurrentSkipListMap<String, MBeanData>> entry : candidates.entrySet()) {
+            String domainName = entry.getKey();
+            if (omittedDomains.contains(domainName)) {
+                continue;
+            }
+            NavigableMap<String, MBeanData> mbeans = entry.getValue();
+            if (domainName.equals(cursorDomain)) {
+                mbeans = mbeans.tailMap(cursorProperties, false);
+            }
+            DomainData data = null;
+            for (MBeanData mbeanData : mbeans.values()) {
+                if (pattern != null && !pattern.apply(mbeanData.getObjectName())) {
+                    continue;
+                }
+                if (count == pageSize) {
+                    if (data != null) {
+                        result.add(data);
+                    }
+                    ObjectName lastName = last.getObjectName();
+                    return new DomainDataPage(result, DomainDataPage.encodeCursor(lastName.getDomain(), lastName.getCanonicalKeyPropertyListString()));
+                }
+                if (data == null) {
+                    data = new DomainData(domainName);
+                }
+                data.addData(mbeanData);
+                last = mbeanData;
+                count++;
+            }
+            if (data != null) {
+                result.add(data);
+            }
+        }
+        return new DomainDataPage(result, null);
+    }
+
+    protected void mbeanRegistered(ObjectName name) {
+
+        index(name);
+    }
+
+    protected void mbeanUnregistered(ObjectName name) {
+
+        synchronized (this) {
+            Map<String, MBeanData> domain = domains.get(name.getDomain());
+            if (domain == null || server.isRegistered(name)) {
+                return;
+            }
+            if (domain.remove(name.getCanonicalKeyPropertyListString()) != null) {
+                if (domain.isEmpty()) {
+                    domains.remove(name.getDomain());
+                }
+                size.decrementAndGet();
+                generation.incrementAndGet();
+            }
+        }
+    }
+
+    /**
+     * Check the index against the MBean count of the server and reconcile it when they differ.
+     */
+    private void verify() {
+
+        if (size.get() == server.getMBeanCount()) {
+            hits.incrementAndGet();
+        } else {
+            misses.incrementAndGet();
+            LOG.debug("Registry index out of step with the MBeanServer, resyncing");
+            resync();
+        }
+    }
+
+    private boolean contains(ObjectName name) {
+
+        Map<String, MBeanData> domain = domains.get(name.getDomain());
+        return domain != null && domain.containsKey(name.getCanonicalKeyPropertyListString());
+    }
+
+    /**
+     * Add an MBean to the index if it is still registered. Only the ObjectName is kept,
+     * the MBeanInfo is fetched on demand through the MBeanInfo cache.
+     */
+    private synchronized void index(ObjectName name) {
+
+        if (!server.isRegistered(name)) {
+            return;
+        }
+        ConcurrentNavigableMap<String, MBeanData> domain = domains.computeIfAbsent(name.getDomain(), d -> new ConcurrentSkipListMap<>());
+        if (domain.put(name.getCanonicalKeyPropertyListString(), new MBeanData(name)) == null) {
+            size.incrementAndGet();
+        }
+        generation.incrementAndGet();
+    }
+
+}
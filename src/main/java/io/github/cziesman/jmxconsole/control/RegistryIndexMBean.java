@@ -0,0 +1,59 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+/**
+ * Management interface of the {@link RegistryIndex}.
+ */
+public interface RegistryIndexMBean {
+
+    /**
+     * @return the number of MBeans currently in the index
+     */
+    int getSize();
+
+    /**
+     * @return a counter that is incremented on every change of the index
+     */
+    long getGeneration();
+
+    /**
+     * @return the number of lookups answered directly from the index
+     */
+    long getHits();
+
+    /**
+     * @return the number of lookups that found the index out of step with the MBeanServer
+     */
+    long getMisses();
+
+    /**
+     * @return the number of times the index has been reconciled with the MBeanServer
+     */
+    long getResyncs();
+
+    /**
+     * Reconcile the index with the MBeans currently registered in the MBeanServer.
+     */
+    void resync();
+
+}
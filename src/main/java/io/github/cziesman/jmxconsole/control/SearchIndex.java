@@ -0,0 +1,396 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.InstanceNotFoundException;
+import javax.management.JMException;
+import javax.management.MBeanFeatureInfo;
+import javax.management.MBeanInfo;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * An inverted index over the ObjectName domain and key properties, the MBean class name
+ * and the attribute and operation names of every registered MBean, kept current from the
+ * registration notifications of the MBeanServerDelegate.
+ *
+ * <p>Each MBean is split into lower case tokens at every character that is not a letter or
+ * digit, and each token maps to the MBeans containing it. A search term matches every token
+ * that contains it, found through a bigram and trigram index over the token dictionary, so a search
+ * for "orders" also finds an MBean named <code>type=OrdersCache</code>. Several terms must
+ * all match.
+ *
+ * <p>The registration notification only queues the new MBean, since it is delivered on the
+ * thread that registers it. Queued MBeans are indexed by the next search, with their
+ * MBeanInfo from the {@link MBeanInfoCache}.
+ */
+public class SearchIndex extends RegistrationListener implements SearchIndexMBean {
+
+    private static final Logger LOG = LoggerFactory.getLogger(SearchIndex.class);
+
+    /**
+     * The n-gram lengths indexed for every token
+     */
+    private static final int MIN_GRAM = 2;
+
+    private static final int MAX_GRAM = 3;
+
+    /**
+     * token -> MBeans containing the token
+     */
+    private final Map<String, Set<ObjectName>> postings = new ConcurrentHashMap<>();
+
+    /**
+     * bigram or trigram -> tokens containing it
+     */
+    private final Map<String, Set<String>> grams = new ConcurrentHashMap<>();
+
+    /**
+     * MBean -> its tokens, needed to remove the MBean again
+     */
+    private final Map<ObjectName, String[]> documents = new ConcurrentHashMap<>();
+
+    /**
+     * MBeans registered since the last search, not indexed yet
+     */
+    private final Queue<ObjectName> pending = new ConcurrentLinkedQueue<>();
+
+    private final MBeanInfoCache mbeanInfoCache;
+
+    /**
+     * Moved on whenever an MBean is queued for indexing or removed
+     */
+    private final AtomicLong version = new AtomicLong();
+
+    private final AtomicLong queryCount = new AtomicLong();
+
+    private final AtomicLong queryTime = new AtomicLong();
+
+    /**
+     * @param server         the MBeanServer whose MBeans are indexed
+     * @param mbeanInfoCache the cache the MBeanInfo of new MBeans is read through
+     */
+    public SearchIndex(MBeanServer server, MBeanInfoCache mbeanInfoCache) {
+
+        super(server);
+        this.mbeanInfoCache = mbeanInfoCache;
+    }
+
+    /**
+     * Subscribe to registration notifications, then queue every registered MBean.
+     */
+    public void start() throws JMException {
+
+        super.start();
+        pending.addAll(server.queryNames(null, null));
+        version.incrementAndGet();
+    }
+
+    /**
+     * Get a version of the index that changes whenever the result of a search may change,
+     * including MBeans queued but not indexed yet. Reading it does not index them.
+     *
+     * @return the version
+     */
+    public long getVersion() {
+
+        return version.get();
+    }
+
+    public int getDocumentCount() {
+
+        return documents.size();
+    }
+
+    public int getPendingCount() {
+
+        return pending.size();
+    }
+
+    public int getTokenCount() {
+
+        return postings.size();
+    }
+
+    public long getQueryCount() {
+
+        return queryCount.get();
+    }
+
+    public long getAverageQueryTime() {
+
+        long count = queryCount.get();
+        return count == 0 ? 0 : queryTime.get() / count / 1000;
+    }
+
+    /**
+     * Find the MBeans matching every term of the query. Only the tokens of the most
+     * selective term are scanned; the other terms are checked against the tokens of each
+     * candidate MBean, and the scan stops as soon as maxResults names are found.
+     *
+     * @param query      the search text
+     * @param maxResults the maximum number of names returned
+     * @return the matching ObjectNames, unordered
+     */
+    public Set<ObjectName> search(String query, int maxResults) {
+
+        long start = System.nanoTime();
+        try {
+            indexPending();
+            Set<String> terms = tokenize(query);
+            if (terms.isEmpty()) {
+                return Collections.emptySet();
+            }
+            String selective = null;
+            Collection<String> selectiveCandidates = null;
+            for (String term : terms) {
+                Collection<String> candidates = candidates(term);
+                if (selectiveCandidates == null || candidates.size() < selectiveCandidates.size()) {
+                    selective = term;
+                    selectiveCandidates = candidates;
+                }
+            }
+            List<String> others = new ArrayList<>(terms);
+            others.remove(selective);
+            Set<ObjectName> result = new LinkedHashSet<>();
+            for (String token : selectiveCandidates) {
+                if (!token.contains(selective)) {
+                    continue;
+                }
+                Set<ObjectName> names = postings.get(token);
+                if (names == null) {
+                    continue;
+                }
+                for (ObjectName name : names) {
+                    if (!result.contains(name) && matchesAll(name, others)) {
+                        result.add(name);
+                        if (result.size() == maxResults) {
+                            return result;
+                        }
+                    }
+                }
+            }
+            return result;
+        } finally {
+            queryCount.incrementAndGet();
+            queryTime.addAndGet(System.nanoTime() - start);
+        }
+    }
+
+    protected void mbeanRegistered(ObjectName name) {
+
+        pending.add(name);
+        version.incrementAndGet();
+    }
+
+    protected synchronized void mbeanUnregistered(ObjectName name) {
+
+        if (server.isRegistered(name)) {
+            return;
+        }
+        String[] tokens = documents.remove(name);
+        if (tokens == null) {
+            return;
+        }
+        version.incrementAndGet();
+        for (String token : tokens) {
+            Set<ObjectName> names = postings.get(token);
+            if (names != null && names.remove(name) && names.isEmpty()) {
+                postings.remove(token);
+                for (String gram : grams(token)) {
+                    Set<String> tokensOfGram = grams.get(gram);
+                    if (tokensOfGram != null) {
+                        tokensOfGram.remove(token);
+                        if (tokensOfGram.isEmpty()) {
+                            grams.remove(gram);
+                        }
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Get the tokens that may contain the term: the smallest set of tokens sharing one of
+     * its longest indexed n-grams, or the whole dictionary for single character terms.
+     */
+    private Collection<String> candidates(String term) {
+
+        Collection<String> candidates = postings.keySet();
+        if (term.length() >= MIN_GRAM) {
+            for (String gram : grams(term, Math.min(term.length(), MAX_GRAM))) {
+                Set<String> tokens = grams.get(gram);
+                if (tokens == null) {
+                    return Collections.emptySet();
+                }
+                if (tokens.size() < candidates.size()) {
+                    candidates = tokens;
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /**
+     * Check that every term is contained in one of the tokens of an MBean.
+     */
+    private boolean matchesAll(ObjectName name, List<String> terms) {
+
+        if (terms.isEmpty()) {
+            return true;
+        }
+        String[] tokens = documents.get(name);
+        if (tokens == null) {
+            return false;
+        }
+        for (String term : terms) {
+            boolean found = false;
+            for (int t = 0; t < tokens.length && !found; t++) {
+                found = tokens[t].contains(term);
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Index the MBeans queued since the last search.
+     */
+    private void indexPending() {
+
+        ObjectName name;
+        while ((name = pending.poll()) != null) {
+            if (!documents.containsKey(name)) {
+                index(name);
+            }
+        }
+    }
+
+    /**
+     * Read the MBeanInfo outside the lock, then add the MBean if it is still registered.
+     */
+    private void index(ObjectName name) {
+
+        StringBuilder text = new StringBuilder(name.getDomain());
+        for (Map.Entry<String, String> property : name.getKeyPropertyList().entrySet()) {
+            text.append(' ').append(property.getKey()).append(' ').append(property.getValue());
+        }
+        try {
+            MBeanInfo info = mbeanInfoCache.get(name);
+            text.append(' ').append(info.getClassName());
+            append(text, info.getAttributes());
+            append(text, info.getOperations());
+        } catch (InstanceNotFoundException e) {
+            return;
+        } catch (JMException | RuntimeException e) {
+            LOG.debug("Indexing only the ObjectName of " + name, e);
+        }
+        Set<String> tokens = tokenize(text);
+        synchronized (this) {
+            if (!server.isRegistered(name) || documents.containsKey(name)) {
+                return;
+            }
+            // the version moved on when the MBean was queued
+            documents.put(name, tokens.toArray(new String[0]));
+            for (String token : tokens) {
+                Set<ObjectName> names = postings.get(token);
+                if (names == null) {
+                    names = ConcurrentHashMap.newKeySet();
+                    postings.put(token, names);
+                    for (String gram : grams(token)) {
+                        grams.computeIfAbsent(gram, g -> ConcurrentHashMap.newKeySet()).add(token);
+                    }
+                }
+                names.add(name);
+            }
+        }
+    }
+
+    private static void append(StringBuilder text, MBeanFeatureInfo[] features) {
+
+        if (features != null) {
+            for (MBeanFeatureInfo feature : features) {
+                text.append(' ').append(feature.getName());
+            }
+        }
+    }
+
+    /**
+     * Split text into distinct lower case tokens of letters and digits.
+     */
+    static Set<String> tokenize(CharSequence text) {
+
+        Set<String> tokens = new LinkedHashSet<>();
+        int start = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean part = i < text.length() && Character.isLetterOrDigit(text.charAt(i));
+            if (part && start == -1) {
+                start = i;
+            } else if (!part && start != -1) {
+                tokens.add(text.subSequence(start, i).toString().toLowerCase(Locale.ROOT));
+                start = -1;
+            }
+        }
+        return tokens;
+    }
+
+    /**
+     * All distinct indexed n-grams of a token.
+     */
+    private static Set<String> grams(String token) {
+
+        Set<String> all = new HashSet<>();
+        for (int n = MIN_GRAM; n <= MAX_GRAM; n++) {
+            all.addAll(grams(token, n));
+        }
+        return all;
+    }
+
+    private static List<String> grams(String token, int n) {
+
+        List<String> grams = new ArrayList<>();
+        for (int i = 0; i + n <= token.length(); i++) {
+            grams.add(token.substring(i, i + n));
+        }
+        return grams;
+    }
+
+}
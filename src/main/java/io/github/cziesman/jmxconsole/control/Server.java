@@ -22,18 +22,27 @@
 package io.github.cziesman.jmxconsole.control;
 
 import java.beans.IntrospectionException;
-import java.beans.PropertyEditor;
-import java.beans.PropertyEditorManager;
 import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collection;
 import java.util.Collections;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.TreeMap;
+import java.util.TreeSet;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Function;
 
 import javax.management.Attribute;
 import javax.management.AttributeList;
+import javax.management.AttributeNotFoundException;
+import javax.management.Descriptor;
+import javax.management.InstanceAlreadyExistsException;
 import javax.management.InstanceNotFoundException;
 import javax.management.JMException;
 import javax.management.MBeanAttributeInfo;
@@ -47,9 +56,13 @@ import javax.management.ReflectionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import io.github.cziesman.jmxconsole.model.DomainData;
+import io.github.cziesman.jmxconsole.model.DomainDataPage;
+import io.github.cziesman.jmxconsole.model.DomainSummary;
 import io.github.cziesman.jmxconsole.model.MBeanData;
-import io.github.cziesman.jmxconsole.util.Classes;
+import io.github.cziesman.jmxconsole.util.TypeCache;
 import io.github.cziesman.jmxconsole.util.editor.PropertyEditors;
+import io.github.cziesman.jmxconsole.util.editor.TextCodec;
+import io.github.cziesman.jmxconsole.util.editor.TextCodecs;
 
 /**
  * Utility methods related to the MBeanServer interface
@@ -63,52 +76,442 @@ public class Server {
 
     private static final Collection<String> omittedDomains = Collections.singletonList("jboss.jsr77");
 
+    /**
+     * The domain under which the console registers its own statistics MBeans
+     */
+    private static final String STATISTICS_DOMAIN = "jmxconsole";
+
+    private static final List<ObjectName> statisticsNames = new ArrayList<>();
+
+    /**
+     * The maximum number of entries in the MBeanInfo cache
+     */
+    private static final int MBEAN_INFO_CACHE_SIZE = Integer.getInteger("jmxconsole.mbeaninfo.cache.size", 1000);
+
+    /**
+     * How long, in milliseconds, MBeanInfo that is not declared immutable is cached
+     */
+    private static final long MBEAN_INFO_CACHE_TTL = Long.getLong("jmxconsole.mbeaninfo.cache.ttl", 30000L);
+
+    /**
+     * The maximum number of MBeans returned by a search
+     */
+    private static final int SEARCH_MAX_RESULTS = Integer.getInteger("jmxconsole.search.max.results", 1000);
+
+    /**
+     * The maximum number of threads reading attribute values
+     */
+    private static final int READER_THREADS = Integer.getInteger("jmxconsole.reader.threads", 8);
+
+    /**
+     * The maximum number of attribute reads waiting for a reader thread
+     */
+    private static final int READER_QUEUE = Integer.getInteger("jmxconsole.reader.queue", 64);
+
+    /**
+     * How long, in milliseconds, to wait for an attribute read
+     */
+    private static final long READER_TIMEOUT = Long.getLong("jmxconsole.reader.timeout", 5000L);
+
+    /**
+     * The maximum number of attributes of one MBean read at the same time, 1 reads them all
+     * with a single getAttributes call
+     */
+    private static final int READER_PARALLELISM = Integer.getInteger("jmxconsole.reader.parallelism", 1);
+
+    /**
+     * The maximum number of MBeans whose attribute values are cached
+     */
+    private static final int ATTRIBUTE_CACHE_SIZE = Integer.getInteger("jmxconsole.attribute.cache.size", 1000);
+
+    /**
+     * How long, in milliseconds, attribute values without a currencyTimeLimit are cached
+     */
+    private static final long ATTRIBUTE_CACHE_TTL = Long.getLong("jmxconsole.attribute.cache.ttl", 0L);
+
+    /**
+     * The maximum number of MBeans whose operation invokers are cached
+     */
+    private static final int INVOKER_CACHE_SIZE = Integer.getInteger("jmxconsole.invoker.cache.size", 1000);
+
+    /**
+     * The maximum number of operations invoked in the background at the same time
+     */
+    private static final int JOB_THREADS = Integer.getInteger("jmxconsole.job.threads", 4);
+
+    /**
+     * The maximum number of background operations waiting for a thread
+     */
+    private static final int JOB_QUEUE = Integer.getInteger("jmxconsole.job.queue", 16);
+
+    /**
+     * The maximum number of finished background operations whose results are kept
+     */
+    private static final int JOB_RETAINED = Integer.getInteger("jmxconsole.job.retained", 100);
+
+    /**
+     * How long, in milliseconds, the result of a finished background operation is kept
+     */
+    private static final long JOB_RETENTION = Long.getLong("jmxconsole.job.retention", 600000L);
+
+    /**
+     * The maximum number of threads invoking an operation on the MBeans matching a pattern
+     */
+    private static final int FAN_OUT_THREADS = Integer.getInteger("jmxconsole.fanout.threads", 16);
+
+    /**
+     * The maximum number of such invocations waiting for a thread
+     */
+    private static final int FAN_OUT_QUEUE = Integer.getInteger("jmxconsole.fanout.queue", 64);
+
+    /**
+     * The number of MBeans an operation is invoked on at the same time, unless the request
+     * asks for another number
+     */
+    public static final int FAN_OUT_PARALLELISM = Integer.getInteger("jmxconsole.fanout.parallelism", 4);
+
+    /**
+     * Milliseconds to wait for the operation of each MBean, unless the request asks for
+     * another timeout
+     */
+    public static final long FAN_OUT_TIMEOUT = Long.getLong("jmxconsole.fanout.timeout", 30000L);
+
+    private static RegistryIndex registryIndex;
+
+    private static SearchIndex searchIndex;
+
+    private static SuggestIndex suggestIndex;
+
+    private static MBeanInfoCache mbeanInfoCache;
+
+    private static AttributeReader attributeReader;
+
+    private static AttributeValueCache attributeValueCache;
+
+    private static OperationInvokerCache operationInvokerCache;
+
+    private static OperationJobs operationJobs;
+
+    private static FanOut fanOut;
+
     public static MBeanServer getMBeanServer() {
         // TODO - could be considered JBoss API?
         // return org.jboss.mx.util.MBeanServerLocator.locateJBoss();
         return ManagementFactory.getPlatformMBeanServer();
     }
 
-    public static Iterator<DomainData> getDomainData(String filter) throws JMException {
+    /**
+     * Get the registry index of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized RegistryIndex getRegistryIndex() throws JMException {
+
+        if (registryIndex == null) {
+            RegistryIndex index = new RegistryIndex(getMBeanServer());
+            index.start();
+            registerStatistics("RegistryIndex", index);
+            registryIndex = index;
+        }
+        return registryIndex;
+    }
+
+    /**
+     * Get the MBeanInfo cache of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized MBeanInfoCache getMBeanInfoCache() throws JMException {
+
+        if (mbeanInfoCache == null) {
+            MBeanInfoCache cache = new MBeanInfoCache(getMBeanServer(), MBEAN_INFO_CACHE_SIZE, MBEAN_INFO_CACHE_TTL);
+            cache.start();
+            registerStatistics("MBeanInfoCache", cache);
+            mbeanInfoCache = cache;
+        }
+        return mbeanInfoCache;
+    }
+
+    /**
+     * Get the full text search index of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized SearchIndex getSearchIndex() throws JMException {
+
+        if (searchIndex == null) {
+            SearchIndex index = new SearchIndex(getMBeanServer(), getMBeanInfoCache());
+            index.start();
+            registerStatistics("SearchIndex", index);
+            searchIndex = index;
+        }
+        return searchIndex;
+    }
+
+    /**
+     * Get the filter completion index of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized SuggestIndex getSuggestIndex() throws JMException {
+
+        if (suggestIndex == null) {
+            SuggestIndex index = new SuggestIndex(getMBeanServer());
+            index.start();
+            registerStatistics("SuggestIndex", index);
+            suggestIndex = index;
+        }
+        return suggestIndex;
+    }
+
+    /**
+     * Get the reader that reads attribute values with a timeout, creating it on first use.
+     */
+    public static synchronized AttributeReader getAttributeReader() {
+
+        if (attributeReader == null) {
+            AttributeReader reader = new AttributeReader(getMBeanServer(), READER_THREADS, READER_QUEUE, READER_TIMEOUT);
+            registerStatistics("AttributeReader", reader);
+            attributeReader = reader;
+        }
+        return attributeReader;
+    }
+
+    /**
+     * Get the attribute value cache of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized AttributeValueCache getAttributeValueCache() throws JMException {
+
+        if (attributeValueCache == null) {
+            AttributeValueCache cache = new AttributeValueCache(getMBeanServer(), ATTRIBUTE_CACHE_SIZE, ATTRIBUTE_CACHE_TTL);
+            cache.start();
+            registerStatistics("AttributeValueCache", cache);
+            attributeValueCache = cache;
+        }
+        return attributeValueCache;
+    }
+
+    /**
+     * Get the operation invoker cache of the MBeanServer, creating and starting it on first use.
+     */
+    public static synchronized OperationInvokerCache getOperationInvokerCache() throws JMException {
+
+        if (operationInvokerCache == null) {
+            OperationInvokerCache cache = new OperationInvokerCache(getMBeanServer(), INVOKER_CACHE_SIZE);
+            cache.start();
+            registerStatistics("OperationInvokerCache", cache);
+            operationInvokerCache = cache;
+        }
+        return operationInvokerCache;
+    }
+
+    /**
+     * Get the runner of background operations, creating it on first use.
+     */
+    public static synchronized OperationJobs getOperationJobs() {
+
+        if (operationJobs == null) {
+            OperationJobs jobs = new OperationJobs(getMBeanServer(), JOB_THREADS, JOB_QUEUE, JOB_RETAINED, JOB_RETENTION);
+            registerStatistics("OperationJobs", jobs);
+            operationJobs = jobs;
+        }
+        return operationJobs;
+    }
+
+    /**
+     * Get the caller of the MBeans matching a pattern, creating it on first use.
+     */
+    public static synchronized FanOut getFanOut() {
+
+        if (fanOut == null) {
+            FanOut caller = new FanOut(FAN_OUT_THREADS, FAN_OUT_QUEUE);
+            registerStatistics("FanOut", caller);
+            fanOut = caller;
+        }
+        return fanOut;
+    }
+
+    /**
+     * Stop the registry listeners and the attribute reader, and unregister the statistics MBeans.
+     */
+    public static synchronized void shutdown() {
 
         MBeanServer server = getMBeanServer();
-        TreeMap<String, DomainData> domainData = new TreeMap<>();
-        if (server != null) {
-            ObjectName filterName = null;
-            if (filter != null) {
-                filterName = new ObjectName(filter);
-            }
-            Set<ObjectName> objectNames = server.queryNames(filterName, null);
-            Iterator<ObjectName> objectNamesIter = objectNames.iterator();
-            while (objectNamesIter.hasNext()) {
-                ObjectName name = objectNamesIter.next();
-                if (omittedDomains.contains(name.getDomain())) {
-                    continue;
-                }
-                try {
-                    MBeanInfo info = server.getMBeanInfo(name);
-                    String domainName = name.getDomain();
-                    MBeanData mbeanData = new MBeanData(name, info);
-                    DomainData data = domainData.get(domainName);
-                    if (data == null) {
-                        data = new DomainData(domainName);
-                        domainData.put(domainName, data);
-                    }
-                    data.addData(mbeanData);
-                } catch (InstanceNotFoundException ex) {
-                    LOG.error(ex.getMessage());
-                }
+        for (ObjectName name : statisticsNames) {
+            try {
+                server.unregisterMBean(name);
+            } catch (JMException e) {
+                LOG.debug("Failed to unregister " + name, e);
             }
         }
+        statisticsNames.clear();
+        if (registryIndex != null) {
+            registryIndex.stop();
+            registryIndex = null;
+        }
+        if (mbeanInfoCache != null) {
+            mbeanInfoCache.stop();
+            mbeanInfoCache = null;
+        }
+        if (searchIndex != null) {
+            searchIndex.stop();
+            searchIndex = null;
+        }
+        if (suggestIndex != null) {
+            suggestIndex.stop();
+            suggestIndex = null;
+        }
+        if (attributeValueCache != null) {
+            attributeValueCache.stop();
+            attributeValueCache = null;
+        }
+        if (operationInvokerCache != null) {
+            operationInvokerCache.stop();
+            operationInvokerCache = null;
+        }
+        if (operationJobs != null) {
+            operationJobs.stop();
+            operationJobs = null;
+        }
+        if (fanOut != null) {
+            fanOut.stop();
+            fanOut = null;
+        }
+        if (attributeReader != null) {
+            attributeReader.stop();
+            attributeReader = null;
+        }
+    }
 
-        return domainData.values().iterator();
+    public static Iterator<DomainData> getDomainData(String filter) throws JMException {
+
+        ObjectName filterName = null;
+        if (filter != null) {
+            filterName = new ObjectName(filter);
+        }
+
+        return getRegistryIndex().query(filterName, omittedDomains).iterator();
     }
 
-    public static MBeanData getMBeanData(String name) throws JMException {
+    /**
+     * Get the MBeanInfo of an MBean through the MBeanInfo cache.
+     */
+    public static MBeanInfo getMBeanInfo(ObjectName objName) throws JMException {
+
+        return getMBeanInfoCache().get(objName);
+    }
+
+    /**
+     * Get one page of the MBeans matching the filter, grouped and sorted by domain.
+     *
+     * @param filter   the ObjectName pattern, or null for all MBeans
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of MBeans on the page
+     * @return the page and the cursor of the next one
+     */
+    public static DomainDataPage getDomainDataPage(String filter, String cursor, int pageSize) throws JMException {
+
+        ObjectName filterName = null;
+        if (filter != null) {
+            filterName = new ObjectName(filter);
+        }
+
+        return getDomainDataPage(filterName, cursor, pageSize);
+    }
+
+    /**
+     * Get one page of the MBeans matching an already parsed ObjectName pattern.
+     *
+     * @param pattern  the ObjectName pattern, or null for all MBeans
+     * @param cursor   the cursor returned with the previous page, or null for the first page
+     * @param pageSize the maximum number of MBeans on the page
+     * @return the page and the cursor of the next one
+     */
+    public static DomainDataPage getDomainDataPage(ObjectName pattern, String cursor, int pageSize) throws JMException {
+
+        return getRegistryIndex().page(pattern, omittedDomains, cursor, pageSize);
+    }
+
+    /**
+     * Get a version of the search index that changes whenever a search result may change,
+     * without indexing the MBeans registered since the last search.
+     */
+    public static long getSearchVersion() throws JMException {
+
+        return getSearchIndex().getVersion() << 32 ^ getMBeanServer().getMBeanCount();
+    }
+
+    /**
+     * Find the MBeans whose ObjectName, class name or attribute and operation names contain
+     * every term of the query.
+     *
+     * @param query the search text
+     * @return the matching MBeans, grouped and sorted by domain
+     */
+    public static List<DomainData> search(String query) throws JMException {
+
+        Set<ObjectName> names = getSearchIndex().search(query, SEARCH_MAX_RESULTS);
+        MBeanData[] found = new MBeanData[names.size()];
+        int count = 0;
+        for (ObjectName name : names) {
+            if (!omittedDomains.contains(name.getDomain())) {
+                found[count++] = new MBeanData(name);
+            }
+        }
+        Arrays.sort(found, 0, count);
+        List<DomainData> result = new ArrayList<>();
+        DomainData data = null;
+        for (int f = 0; f < count; f++) {
+            String domainName = found[f].getObjectName().getDomain();
+            if (data == null || !data.getDomainName().equals(domainName)) {
+                data = new DomainData(domainName);
+                result.add(data);
+            }
+            data.addData(found[f]);
+        }
+        return result;
+    }
+
+    /**
+     * Complete a partially typed ObjectName filter from the domain names and key properties
+     * of the registered MBeans.
+     *
+     * @param text the filter typed so far
+     * @param max  the maximum number of suggestions
+     * @return the complete filter texts suggested
+     */
+    public static List<String> suggest(String text, int max) throws JMException {
+
+        return getSuggestIndex().suggest(text, max);
+    }
+
+    /**
+     * Get a version of the set of registered MBeans that changes whenever an MBean is
+     * registered or unregistered, without building the registry index. The changes are
+     * counted by the MBeanInfo cache, which follows the registrations from its start.
+     */
+    public static long getRegistrationVersion() throws JMException {
+
+        long changes = getMBeanInfoCache().getRegistrationChanges();
+        return changes << 32 ^ getMBeanServer().getMBeanCount();
+    }
+
+    /**
+     * Get the sorted domain names of the MBeanServer with the number of MBeans in each,
+     * without touching any MBeanInfo.
+     */
+    public static List<DomainSummary> getDomainSummaries() throws JMException {
 
         MBeanServer server = getMBeanServer();
+        String[] domains = server.getDomains();
+        Arrays.sort(domains);
+        List<DomainSummary> summaries = new ArrayList<>(domains.length);
+        for (String domain : domains) {
+            if (omittedDomains.contains(domain)) {
+                continue;
+            }
+            ObjectName pattern = new ObjectName(domain + ":*");
+            summaries.add(new DomainSummary(domain, server.queryNames(pattern, null).size()));
+        }
+        return summaries;
+    }
+
+    public static MBeanData getMBeanData(String name) throws JMException {
+
         ObjectName objName = new ObjectName(name);
-        MBeanInfo info = server.getMBeanInfo(objName);
+        MBeanInfo info = getMBeanInfo(objName);
 
         return new MBeanData(objName, info);
     }
@@ -139,116 +542,426 @@ public class Server {
 
     public static AttrResultInfo getMBeanAttributeResultInfo(String name, MBeanAttributeInfo attrInfo) throws JMException {
 
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        MBeanServer server = getMBeanServer();
+        return getMBeanAttributeResultInfos(name, new MBeanAttributeInfo[]{attrInfo})[0];
+    }
+
+    /**
+     * Read all readable attributes with a single getAttributes call. Only the attributes missing
+     * from the bulk result are read again one by one, to capture the reason they failed. When
+     * jmxconsole.reader.parallelism is above 1 the attributes are instead read one by one, that
+     * many at a time, so the slowest getter rather than the sum of all getters bounds the wait.
+     * Reads that do not complete within the reader timeout fail with a TimeoutException. Values
+     * still current in the attribute value cache are not read again. The results are in the
+     * order of attributesInfo.
+     *
+     * @param name           the ObjectName of the MBean
+     * @param attributesInfo the attributes to read
+     * @return one result per attribute
+     */
+    public static AttrResultInfo[] getMBeanAttributeResultInfos(String name, MBeanAttributeInfo[] attributesInfo) throws JMException {
+
+        AttributeReader reader = getAttributeReader();
+        AttributeValueCache cache = getAttributeValueCache();
         ObjectName objName = new ObjectName(name);
-        String attrName = attrInfo.getName();
-        String attrType = attrInfo.getType();
-        Object value = null;
-        Throwable throwable = null;
-        if (attrInfo.isReadable()) {
+        Map<String, AttributeValueCache.Entry> cached = new HashMap<>();
+        List<MBeanAttributeInfo> uncached = new ArrayList<>(attributesInfo.length);
+        List<String> readable = new ArrayList<>(attributesInfo.length);
+        for (MBeanAttributeInfo attrInfo : attributesInfo) {
+            if (attrInfo.isReadable()) {
+                AttributeValueCache.Entry entry = cache.get(objName, attrInfo.getName());
+                if (entry != null) {
+                    cached.put(attrInfo.getName(), entry);
+                } else {
+                    uncached.add(attrInfo);
+                    readable.add(attrInfo.getName());
+                }
+            }
+        }
+        Descriptor mbeanDescriptor = null;
+        long generation = -1;
+        if (!readable.isEmpty()) {
+            mbeanDescriptor = getMBeanInfo(objName).getDescriptor();
+            generation = cache.begin(objName, uncached.toArray(new MBeanAttributeInfo[0]), mbeanDescriptor);
+        }
+        long timestamp = System.currentTimeMillis();
+        Map<String, Object> values = new HashMap<>();
+        Map<String, Throwable> failures = new HashMap<>();
+        if (READER_PARALLELISM > 1 && readable.size() > 1) {
+            String[] attrNames = readable.toArray(new String[0]);
+            Object[] read = new Object[attrNames.length];
+            Throwable[] failed = new Throwable[attrNames.length];
+            try {
+                reader.getAttributes(objName, attrNames, READER_PARALLELISM, read, failed);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new JMException("Interrupted while reading the attributes of " + objName);
+            }
+            for (int i = 0; i < attrNames.length; i++) {
+                if (failed[i] != null) {
+                    failures.put(attrNames[i], failed[i]);
+                } else {
+                    values.put(attrNames[i], read[i]);
+                }
+            }
+        } else if (!readable.isEmpty()) {
             try {
-                value = server.getAttribute(objName, attrName);
-            } catch (Throwable t) {
-                throwable = t;
+                for (Attribute attribute : reader.getAttributes(objName, readable.toArray(new String[0])).asList()) {
+                    values.put(attribute.getName(), attribute.getValue());
+                }
+            } catch (InstanceNotFoundException e) {
+                throw e;
+            } catch (TimeoutException | RejectedExecutionException e) {
+                // reading them again one by one would only wait on the same getter, or pool
+                LOG.debug("Bulk attribute read did not complete for {}", objName, e);
+                for (String attrName : readable) {
+                    failures.put(attrName, e);
+                }
+            } catch (Exception e) {
+                LOG.debug("Bulk attribute read failed for {}", objName, e);
             }
         }
-        Class<?> typeClass = null;
-        try {
-            typeClass = Classes.getPrimitiveTypeForName(attrType);
-            if (typeClass == null) {
-                typeClass = loader.loadClass(attrType);
+
+        AttrResultInfo[] results = new AttrResultInfo[attributesInfo.length];
+        for (int i = 0; i < attributesInfo.length; i++) {
+            MBeanAttributeInfo attrInfo = attributesInfo[i];
+            String attrName = attrInfo.getName();
+            TextCodec codec = findAttributeCodec(attrInfo.getType());
+            AttributeValueCache.Entry entry = cached.get(attrName);
+            if (entry != null) {
+                results[i] = new AttrResultInfo(attrName, codec, entry.value, null, entry.timestamp);
+                results[i].cached = true;
+                continue;
             }
-        } catch (ClassNotFoundException ignore) {
+            Object value = null;
+            Throwable throwable = null;
+            if (failures.containsKey(attrName)) {
+                throwable = failures.get(attrName);
+            } else if (values.containsKey(attrName)) {
+                value = values.get(attrName);
+                cache.put(objName, attrInfo, mbeanDescriptor, value, timestamp, generation);
+            } else if (attrInfo.isReadable()) {
+                try {
+                    value = reader.getAttribute(objName, attrName);
+                } catch (Throwable t) {
+                    throwable = t;
+                }
+            }
+            results[i] = new AttrResultInfo(attrName, codec, value, throwable);
         }
-        PropertyEditor editor = null;
-        if (typeClass != null) {
-            editor = PropertyEditorManager.findEditor(typeClass);
+        return results;
+    }
+
+    /**
+     * A digest of attribute values read by getMBeanAttributeResultInfos, used to validate
+     * cached MBean views.
+     *
+     * @param results the attribute results
+     * @return the digest
+     */
+    public static int getAttributeDigest(AttrResultInfo[] results) {
+
+        int digest = 1;
+        for (AttrResultInfo result : results) {
+            digest = 31 * digest + result.name.hashCode();
+            digest = 31 * digest + Arrays.deepHashCode(new Object[]{result.result});
+            if (result.throwable != null) {
+                digest = 31 * digest + result.throwable.getClass().hashCode();
+            }
         }
+        return digest;
+    }
 
-        return new AttrResultInfo(attrName, editor, value, throwable);
+    private static TextCodec findAttributeCodec(String attrType) {
+
+        Class<?> typeClass = TypeCache.findClass(attrType);
+        return typeClass == null ? null : TextCodecs.find(typeClass);
     }
 
-    public static AttributeList setAttributes(String name, HashMap<String, String> attributes) throws JMException {
+    /**
+     * Set the submitted attributes of an mbean. The values are converted first and then
+     * applied with a single setAttributes call; the attributes missing from the list it
+     * returns were not set. A submitted "null" leaves an attribute that is null alone.
+     *
+     * @param data       the mbean and its cached MBeanInfo
+     * @param attributes the submitted text values by attribute name
+     * @return the outcome per submitted attribute, in the order of the MBeanInfo
+     */
+    public static AttrUpdateInfo[] setAttributes(MBeanData data, Map<String, String> attributes) throws JMException {
 
         MBeanServer server = getMBeanServer();
-        ObjectName objName = new ObjectName(name);
-        MBeanInfo info = server.getMBeanInfo(objName);
-        MBeanAttributeInfo[] attributesInfo = info.getAttributes();
+        ObjectName objName = data.getObjectName();
+        MBeanAttributeInfo[] attributesInfo = data.getMetaData().getAttributes();
+        List<AttrUpdateInfo> updates = new ArrayList<>(attributes.size());
         AttributeList newAttributes = new AttributeList();
-        for (int a = 0; a < attributesInfo.length; a++) {
-            MBeanAttributeInfo attrInfo = attributesInfo[a];
+        List<String> nullNames = new ArrayList<>();
+        for (MBeanAttributeInfo attrInfo : attributesInfo) {
             String attrName = attrInfo.getName();
-            if (!attributes.containsKey(attrName)) {
-                continue;
+            if ("null".equals(attributes.get(attrName))) {
+                nullNames.add(attrName);
             }
-            String value = attributes.get(attrName);
-            if (value.equals("null") && server.getAttribute(objName, attrName) == null) {
-                LOG.trace("ignoring 'null' for " + attrName);
+        }
+        Set<String> ignored = new HashSet<>();
+        if (!nullNames.isEmpty()) {
+            // one read for all the "null" values, which leave null attributes alone
+            for (Attribute current : server.getAttributes(objName, nullNames.toArray(new String[0])).asList()) {
+                if (current.getValue() == null) {
+                    LOG.trace("ignoring 'null' for " + current.getName());
+                    ignored.add(current.getName());
+                }
+            }
+        }
+        for (MBeanAttributeInfo attrInfo : attributesInfo) {
+            String attrName = attrInfo.getName();
+            if (!attributes.containsKey(attrName) || ignored.contains(attrName)) {
                 continue;
             }
+            String value = attributes.get(attrName);
             String attrType = attrInfo.getType();
-            Attribute attr = null;
             try {
                 Object realValue = PropertyEditors.convertValue(value, attrType);
-                attr = new Attribute(attrName, realValue);
+                newAttributes.add(new Attribute(attrName, realValue));
+                updates.add(new AttrUpdateInfo(attrName, realValue, null));
             } catch (ClassNotFoundException e) {
-                String s = (attr != null) ? attr.getName() : attrType;
-                LOG.trace("Failed to load class for attribute: " + s, e);
-                throw new ReflectionException(e, "Failed to load class for attribute: " + s);
+                LOG.trace("Failed to load class for attribute: " + attrType, e);
+                updates.add(new AttrUpdateInfo(attrName, value, new ReflectionException(e, "Failed to load class for attribute: " + attrType)));
             } catch (IntrospectionException e) {
                 LOG.trace("Skipped setting attribute: {}, cannot find PropertyEditor for type: {}", attrName, attrType);
-                continue;
+                updates.add(new AttrUpdateInfo(attrName, value, e));
+            } catch (RuntimeException e) {
+                LOG.trace("Failed to convert the value of attribute: " + attrName, e);
+                updates.add(new AttrUpdateInfo(attrName, value, e));
             }
-
-            server.setAttribute(objName, attr);
-            newAttributes.add(attr);
         }
-        return newAttributes;
+        if (!newAttributes.isEmpty()) {
+            Set<String> applied = new HashSet<>();
+            for (Attribute attr : server.setAttributes(objName, newAttributes).asList()) {
+                applied.add(attr.getName());
+            }
+            getAttributeValueCache().invalidate(objName);
+            for (AttrUpdateInfo update : updates) {
+                if (update.throwable == null && !applied.contains(update.name)) {
+                    update.throwable = new JMException("The MBean did not set the attribute");
+                }
+            }
+        }
+        return updates.toArray(new AttrUpdateInfo[0]);
     }
 
     public static OpResultInfo invokeOp(String name, int index, String[] args) throws JMException {
 
-        MBeanServer server = getMBeanServer();
         ObjectName objName = new ObjectName(name);
-        MBeanInfo info = server.getMBeanInfo(objName);
-        MBeanOperationInfo[] opInfo = info.getOperations();
-        MBeanOperationInfo op = opInfo[index];
-        MBeanParameterInfo[] paramInfo = op.getSignature();
-        String[] argTypes = new String[paramInfo.length];
-        for (int p = 0; p < paramInfo.length; p++) {
-            argTypes[p] = paramInfo[p].getType();
-        }
-        return invokeOpByName(name, op.getName(), argTypes, args);
+        MBeanInfo info = getMBeanInfo(objName);
+        return getOperationInvokerCache().get(objName, index, info).invoke(getMBeanServer(), objName, args);
     }
 
     public static OpResultInfo invokeOpByName(String name, String opName, String[] argTypes, String[] args) throws JMException {
 
-        MBeanServer server = getMBeanServer();
         ObjectName objName = new ObjectName(name);
-        int length = argTypes != null ? argTypes.length : 0;
-        Object[] typedArgs = new Object[length];
-        for (int p = 0; p < typedArgs.length; p++) {
-            String arg = args[p];
+        return getOperationInvokerCache().get(objName, opName, argTypes).invoke(getMBeanServer(), objName, args);
+    }
+
+    /**
+     * Start invoking an operation in the background, given the index into the
+     * MBeanOperationInfo[] of the mbean. The arguments are converted before this returns.
+     *
+     * @return the job running the operation
+     */
+    public static OperationJobs.Job submitOp(String name, int index, String[] args) throws JMException {
+
+        ObjectName objName = new ObjectName(name);
+        MBeanInfo info = getMBeanInfo(objName);
+        return getOperationJobs().submit(getOperationInvokerCache().get(objName, index, info), objName, args);
+    }
+
+    /**
+     * Start invoking an operation in the background, given its name and signature.
+     *
+     * @return the job running the operation
+     */
+    public static OperationJobs.Job submitOpByName(String name, String opName, String[] argTypes, String[] args) throws JMException {
+
+        ObjectName objName = new ObjectName(name);
+        return getOperationJobs().submit(getOperationInvokerCache().get(objName, opName, argTypes), objName, args);
+    }
+
+    /**
+     * Resolve the MBeans matching a pattern as targets of an operation. The arguments are
+     * converted once per distinct signature; without argument types the signature of each
+     * MBean is that of its first operation with the name and the number of arguments.
+     *
+     * @param pattern  the ObjectName pattern
+     * @param opName   the name of the operation
+     * @param argTypes the signature, or null to find it in the MBeanInfo of each MBean
+     * @param args     the arguments as text
+     * @return the targets, in ObjectName order; those that cannot be invoked carry the reason
+     */
+    public static List<FanOut.Target> getFanOutTargets(String pattern, String opName, String[] argTypes, String[] args) throws JMException {
+
+        MBeanServer server = getMBeanServer();
+        Set<ObjectName> names = new TreeSet<>(server.queryNames(new ObjectName(pattern), null));
+        Map<List<String>, Function<ObjectName, FanOut.Target>> prepared = new HashMap<>();
+        List<FanOut.Target> targets = new ArrayList<>(names.size());
+        for (ObjectName objName : names) {
+            String[] signature = argTypes;
+            if (signature == null) {
+                try {
+                    signature = findSignature(getMBeanInfo(objName), opName, args.length);
+                } catch (JMException e) {
+                    targets.add(new FanOut.Target(objName, e));
+                    continue;
+                }
+                if (signature == null) {
+                    targets.add(new FanOut.Target(objName, new ReflectionException(
+                            new NoSuchMethodException(opName), "No operation " + opName + " with " + args.length + " parameters")));
+                    continue;
+                }
+            }
+            List<String> key = Arrays.asList(signature);
+            Function<ObjectName, FanOut.Target> target = prepared.get(key);
+            if (target == null) {
+                try {
+                    OperationInvokerCache.Invoker invoker = new OperationInvokerCache.Invoker(opName, signature, null);
+                    Object[] typedArgs = invoker.convert(args);
+                    target = name -> new FanOut.Target(name, () -> invoker.invoke(server, name, args, typedArgs));
+                } catch (JMException | RuntimeException e) {
+                    target = name -> new FanOut.Target(name, e);
+                }
+                prepared.put(key, target);
+            }
+            targets.add(target.apply(objName));
+        }
+        return targets;
+    }
+
+    /**
+     * Resolve the MBeans matching a pattern as targets of an attribute update. The MBeans are
+     * grouped by class and by the types of the given attributes they expose, and each value is
+     * converted once per attribute type; every MBean of a group is then sent the same
+     * AttributeList in one setAttributes call. The value cache of each MBean is invalidated
+     * once it has been updated.
+     *
+     * @param pattern    the ObjectName pattern
+     * @param attributes the new values as text, by attribute name
+     * @return the targets, in ObjectName order, each returning its AttrUpdateInfo[] in the
+     *         order of the attributes; those that cannot be updated carry the reason
+     */
+    public static List<FanOut.Target> getFanOutUpdateTargets(String pattern, Map<String, String> attributes) throws JMException {
+
+        MBeanServer server = getMBeanServer();
+        Set<ObjectName> names = new TreeSet<>(server.queryNames(new ObjectName(pattern), null));
+        Map<List<String>, AttrUpdateInfo> converted = new HashMap<>();
+        Map<List<String>, Function<ObjectName, FanOut.Target>> groups = new HashMap<>();
+        List<FanOut.Target> targets = new ArrayList<>(names.size());
+        for (ObjectName objName : names) {
+            MBeanInfo info;
             try {
-                Object argValue = PropertyEditors.convertValue(arg, argTypes[p]);
-                typedArgs[p] = argValue;
-            } catch (ClassNotFoundException e) {
-                LOG.trace("Failed to load class for arg" + p, e);
-                throw new ReflectionException(e, "Failed to load class for arg" + p);
-            } catch (java.beans.IntrospectionException e) {
-                // If the type is not java.lang.Object throw an exception
-                if (!argTypes[p].equals("java.lang.Object")) {
-                    throw new javax.management.IntrospectionException(
-                            "Failed to find PropertyEditor for type: " + argTypes[p]);
+                info = getMBeanInfo(objName);
+            } catch (JMException e) {
+                targets.add(new FanOut.Target(objName, e));
+                continue;
+            }
+            // the class, then the type of each attribute in the order given, or "" when the
+            // MBean has no such writable attribute
+            Map<String, String> types = new HashMap<>();
+            for (MBeanAttributeInfo attrInfo : info.getAttributes()) {
+                if (attrInfo.isWritable() && attributes.containsKey(attrInfo.getName())) {
+                    types.put(attrInfo.getName(), attrInfo.getType());
                 }
-                // Just use the String arg
-                typedArgs[p] = arg;
+            }
+            List<String> key = new ArrayList<>(attributes.size() + 1);
+            key.add(info.getClassName());
+            for (String attrName : attributes.keySet()) {
+                key.add(types.getOrDefault(attrName, ""));
+            }
+            Function<ObjectName, FanOut.Target> target = groups.get(key);
+            if (target == null) {
+                target = prepareUpdate(server, attributes, key, converted);
+                groups.put(key, target);
+            }
+            targets.add(target.apply(objName));
+        }
+        return targets;
+    }
+
+    private static Function<ObjectName, FanOut.Target> prepareUpdate(MBeanServer server, Map<String, String> attributes, List<String> key,
+            Map<List<String>, AttrUpdateInfo> converted) {
+
+        AttrUpdateInfo[] template = new AttrUpdateInfo[attributes.size()];
+        AttributeList newAttributes = new AttributeList();
+        int i = 0;
+        for (Map.Entry<String, String> entry : attributes.entrySet()) {
+            String attrName = entry.getKey();
+            String attrType = key.get(i + 1);
+            if (attrType.isEmpty()) {
+                template[i++] = new AttrUpdateInfo(attrName, entry.getValue(),
+                        new AttributeNotFoundException("No writable attribute " + attrName));
                 continue;
             }
+            // the converted value, or the failure to convert it, shared by all groups
+            AttrUpdateInfo update = converted.computeIfAbsent(Arrays.asList(attrName, attrType), k -> {
+                String value = entry.getValue();
+                try {
+                    return new AttrUpdateInfo(attrName, PropertyEditors.convertValue(value, attrType), null);
+                } catch (ClassNotFoundException e) {
+                    LOG.trace("Failed to load class for attribute: " + attrType, e);
+                    return new AttrUpdateInfo(attrName, value, new ReflectionException(e, "Failed to load class for attribute: " + attrType));
+                } catch (IntrospectionException | RuntimeException e) {
+                    LOG.trace("Failed to convert the value of attribute: " + attrName, e);
+                    return new AttrUpdateInfo(attrName, value, e);
+                }
+            });
+            if (update.throwable == null) {
+                newAttributes.add(new Attribute(attrName, update.value));
+            }
+            template[i++] = update;
+        }
+        if (newAttributes.isEmpty()) {
+            return name -> new FanOut.Target(name, () -> template);
+        }
+        return name -> new FanOut.Target(name, () -> {
+            Set<String> applied = new HashSet<>();
+            for (Attribute attr : server.setAttributes(name, newAttributes).asList()) {
+                applied.add(attr.getName());
+            }
+            getAttributeValueCache().invalidate(name);
+            AttrUpdateInfo[] updates = new AttrUpdateInfo[template.length];
+            for (int u = 0; u < updates.length; u++) {
+                AttrUpdateInfo update = template[u];
+                if (update.throwable == null && !applied.contains(update.name)) {
+                    update = new AttrUpdateInfo(update.name, update.value, new JMException("The MBean did not set the attribute"));
+                }
+                updates[u] = update;
+            }
+            return updates;
+        });
+    }
+
+    private static String[] findSignature(MBeanInfo info, String opName, int length) {
+
+        for (MBeanOperationInfo op : info.getOperations()) {
+            MBeanParameterInfo[] paramInfo = op.getSignature();
+            if (op.getName().equals(opName) && paramInfo.length == length) {
+                String[] signature = new String[length];
+                for (int p = 0; p < length; p++) {
+                    signature[p] = paramInfo[p].getType();
+                }
+                return signature;
+            }
+        }
+        return null;
+    }
+
+    private static void registerStatistics(String type, Object mbean) {
+
+        try {
+            ObjectName name = new ObjectName(STATISTICS_DOMAIN, "type", type);
+            getMBeanServer().registerMBean(mbean, name);
+            statisticsNames.add(name);
+        } catch (InstanceAlreadyExistsException e) {
+            LOG.debug("Statistics MBean already registered for " + type);
+        } catch (JMException e) {
+            LOG.warn("Failed to register statistics MBean for " + type, e);
         }
-        Object opReturn = server.invoke(objName, opName, typedArgs, argTypes);
-        return new OpResultInfo(opName, argTypes, args, opReturn);
     }
 
 }
@@ -0,0 +1,175 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.control;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import io.github.cziesman.jmxconsole.util.PrefixTrie;
+
+/**
+ * Prefix tries of the domain names, key property names and key property values of the
+ * registered MBeans, kept current from the registration notifications of the
+ * MBeanServerDelegate, that complete partially typed ObjectName filters.
+ *
+ * <p>Values are completed per key property name across all domains.
+ */
+public class SuggestIndex extends RegistrationListener implements SuggestIndexMBean {
+
+    private final PrefixTrie domains = new PrefixTrie();
+
+    private final PrefixTrie keys = new PrefixTrie();
+
+    /**
+     * key property name -> its values
+     */
+    private final Map<String, PrefixTrie> values = new ConcurrentHashMap<>();
+
+    /**
+     * the MBeans whose names have been added to the tries
+     */
+    private final Set<ObjectName> indexed = ConcurrentHashMap.newKeySet();
+
+    private final AtomicLong queryCount = new AtomicLong();
+
+    public SuggestIndex(MBeanServer server) {
+
+        super(server);
+    }
+
+    /**
+     * Subscribe to registration notifications, then add the names of every registered MBean.
+     */
+    public void start() throws JMException {
+
+        super.start();
+        for (ObjectName name : server.queryNames(null, null)) {
+            mbeanRegistered(name);
+        }
+    }
+
+    public int getDomainCount() {
+
+        return domains.size();
+    }
+
+    public int getKeyCount() {
+
+        return keys.size();
+    }
+
+    public int getValueCount() {
+
+        int count = 0;
+        for (PrefixTrie trie : values.values()) {
+            count += trie.size();
+        }
+        return count;
+    }
+
+    public long getQueryCount() {
+
+        return queryCount.get();
+    }
+
+    /**
+     * Complete a partially typed ObjectName filter. Text without a ':' completes a domain
+     * name; otherwise the last key property after the ':' completes either its name or,
+     * once the '=' has been typed, its value.
+     *
+     * @param text the filter typed so far
+     * @param max  the maximum number of suggestions
+     * @return the complete filter texts suggested, in lexicographical order
+     */
+    public List<String> suggest(String text, int max) {
+
+        queryCount.incrementAndGet();
+        int separator = text.indexOf(':');
+        if (separator == -1) {
+            return domains.complete(text, max);
+        }
+        int start = text.lastIndexOf(',') + 1;
+        if (start <= separator) {
+            start = separator + 1;
+        }
+        String head = text.substring(0, start);
+        String property = text.substring(start);
+        int assignment = property.indexOf('=');
+        if (assignment == -1) {
+            List<String> suggestions = new ArrayList<>();
+            for (String key : keys.complete(property, max)) {
+                suggestions.add(head + key + '=');
+            }
+            return suggestions;
+        }
+        PrefixTrie trie = values.get(property.substring(0, assignment));
+        if (trie == null) {
+            return Collections.emptyList();
+        }
+        head = head + property.substring(0, assignment + 1);
+        List<String> suggestions = new ArrayList<>();
+        for (String value : trie.complete(property.substring(assignment + 1), max)) {
+            suggestions.add(head + value);
+        }
+        return suggestions;
+    }
+
+    protected synchronized void mbeanRegistered(ObjectName name) {
+
+        if (!server.isRegistered(name) || !indexed.add(name)) {
+            return;
+        }
+        domains.add(name.getDomain());
+        for (Map.Entry<String, String> property : name.getKeyPropertyList().entrySet()) {
+            keys.add(property.getKey());
+            values.computeIfAbsent(property.getKey(), k -> new PrefixTrie()).add(property.getValue());
+        }
+    }
+
+    protected synchronized void mbeanUnregistered(ObjectName name) {
+
+        if (server.isRegistered(name) || !indexed.remove(name)) {
+            return;
+        }
+        domains.remove(name.getDomain());
+        for (Map.Entry<String, String> property : name.getKeyPropertyList().entrySet()) {
+            keys.remove(property.getKey());
+            PrefixTrie trie = values.get(property.getKey());
+            if (trie != null) {
+                trie.remove(property.getValue());
+                if (trie.size() == 0) {
+                    values.remove(property.getKey());
+                }
+            }
+        }
+    }
+
+}
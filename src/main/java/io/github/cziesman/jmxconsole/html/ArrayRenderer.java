@@ -0,0 +1,191 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+
+/**
+ * Writes the elements of an array attribute one per line, html escaped, straight to the
+ * response. Primitive arrays are read through their own type so no element is boxed, and
+ * at most a configured number of elements is written.
+ */
+final class ArrayRenderer {
+
+    /**
+     * The maximum number of array elements rendered for an attribute
+     */
+    static final int MAX_ELEMENTS = Integer.getInteger("jmxconsole.array.max.elements", 1000);
+
+    private ArrayRenderer() {
+
+    }
+
+    /**
+     * Write the elements of an array.
+     *
+     * @param out   the writer
+     * @param array the array, of any component type
+     * @param sep   written after each element
+     */
+    static void write(Writer out, Object array, String sep) throws IOException {
+
+        int length = Array.getLength(array);
+        int count = Math.min(length, MAX_ELEMENTS);
+        if (array instanceof long[]) {
+            long[] values = (long[]) array;
+            char[] digits = new char[20];
+            for (int i = 0; i < count; i++) {
+                writeLong(out, values[i], digits);
+                out.write(sep);
+            }
+        } else if (array instanceof int[]) {
+            int[] values = (int[]) array;
+            char[] digits = new char[20];
+            for (int i = 0; i < count; i++) {
+                writeLong(out, values[i], digits);
+                out.write(sep);
+            }
+        } else if (array instanceof short[]) {
+            short[] values = (short[]) array;
+            char[] digits = new char[20];
+            for (int i = 0; i < count; i++) {
+                writeLong(out, values[i], digits);
+                out.write(sep);
+            }
+        } else if (array instanceof byte[]) {
+            byte[] values = (byte[]) array;
+            char[] digits = new char[20];
+            for (int i = 0; i < count; i++) {
+                writeLong(out, values[i], digits);
+                out.write(sep);
+            }
+        } else if (array instanceof boolean[]) {
+            boolean[] values = (boolean[]) array;
+            for (int i = 0; i < count; i++) {
+                out.write(values[i] ? "true" : "false");
+                out.write(sep);
+            }
+        } else if (array instanceof char[]) {
+            char[] values = (char[]) array;
+            for (int i = 0; i < count; i++) {
+                escape(out, values[i]);
+                out.write(sep);
+            }
+        } else if (array instanceof double[]) {
+            double[] values = (double[]) array;
+            for (int i = 0; i < count; i++) {
+                out.write(Double.toString(values[i]));
+                out.write(sep);
+            }
+        } else if (array instanceof float[]) {
+            float[] values = (float[]) array;
+            for (int i = 0; i < count; i++) {
+                out.write(Float.toString(values[i]));
+                out.write(sep);
+            }
+        } else {
+            Object[] values = (Object[]) array;
+            for (int i = 0; i < count; i++) {
+                escape(out, String.valueOf(values[i]));
+                out.write(sep);
+            }
+        }
+        if (length > count) {
+            out.write("... " + (length - count) + " more elements" + sep);
+        }
+    }
+
+    /**
+     * Write a string with the html metacharacters of element content escaped.
+     */
+    static void escape(Writer out, String s) throws IOException {
+
+        escape(out, s, 0, s.length());
+    }
+
+    /**
+     * Write the characters from begin to end of a string with the html metacharacters of
+     * element content escaped.
+     */
+    static void escape(Writer out, String s, int begin, int end) throws IOException {
+
+        int start = begin;
+        for (int i = begin; i < end; i++) {
+            String entity = entity(s.charAt(i));
+            if (entity != null) {
+                out.write(s, start, i - start);
+                out.write(entity);
+                start = i + 1;
+            }
+        }
+        out.write(s, start, end - start);
+    }
+
+    static void escape(Writer out, char c) throws IOException {
+
+        String entity = entity(c);
+        if (entity != null) {
+            out.write(entity);
+        } else {
+            out.write(c);
+        }
+    }
+
+    private static String entity(char c) {
+
+        switch (c) {
+        case '<':
+            return "&lt;";
+        case '>':
+            return "&gt;";
+        case '&':
+            return "&amp;";
+        default:
+            return null;
+        }
+    }
+
+    /**
+     * Write the decimal digits of a value through a reusable buffer.
+     */
+    private static void writeLong(Writer out, long value, char[] digits) throws IOException {
+
+        if (value == Long.MIN_VALUE) {
+            out.write(Long.toString(value));
+            return;
+        }
+        boolean negative = value < 0;
+        long rest = negative ? -value : value;
+        int pos = digits.length;
+        do {
+            digits[--pos] = (char) ('0' + rest % 10);
+            rest /= 10;
+        } while (rest != 0);
+        if (negative) {
+            digits[--pos] = '-';
+        }
+        out.write(digits, pos, digits.length - pos);
+    }
+
+}
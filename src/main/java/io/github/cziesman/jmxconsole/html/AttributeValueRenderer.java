@@ -0,0 +1,200 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.io.Writer;
+import java.net.URLEncoder;
+import java.util.ArrayList;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.ObjectName;
+
+import org.dom4j.io.HTMLWriter;
+import io.github.cziesman.jmxconsole.control.AttrResultInfo;
+import io.github.cziesman.jmxconsole.util.editor.PropertyEditors;
+
+/**
+ * Renders the value cell of an attribute in the MBean inspector: the value, or an input
+ * for a writable attribute. Shared by inspectMBean.jsp and the attribute values action so
+ * values loaded after the page look the same as values rendered with it.
+ */
+public final class AttributeValueRenderer {
+
+    static final String SEP = System.getProperty("line.separator", "\n");
+
+    private AttributeValueRenderer() {
+
+    }
+
+    /**
+     * Render the contents of the value cell of an attribute. Values longer than
+     * ValueSlicer.MAX_CHARS are cut there and followed by a link loading the next slice.
+     * Open MBean values without a text form are rendered as tables.
+     *
+     * @param name       the name of the mbean
+     * @param attrInfo   the attribute
+     * @param attrResult the value read from the attribute
+     * @param out        receives the html
+     */
+    public static void render(String name, MBeanAttributeInfo attrInfo, AttrResultInfo attrResult, Writer out) throws IOException {
+
+        String attrName = attrInfo.getName();
+        String attrType = attrInfo.getType();
+        String attrValue = null;
+        if (attrResult.codec == null && attrResult.throwable == null && OpenDataRenderer.isOpenData(attrResult.result)) {
+            OpenDataRenderer.write(out, name, attrName, new ArrayList<>(), attrResult.result, 0);
+            out.write(SEP);
+            writeAge(out, attrResult);
+            return;
+        }
+        out.write("    <pre>");
+        out.write(SEP);
+
+        if (attrInfo.isWritable() && attrInfo.isReadable() && attrResult.throwable != null) {
+            // a failed read is shown rather than edited, so its message cannot be submitted as the value
+            out.write("<span class='error'>" + translateMetaCharacters(attrResult.getAsText()) + "</span>");
+        } else if (attrInfo.isWritable()) {
+            String readonly = attrResult.codec == null ? "class='readonly' readonly" : "class='writable'";
+            if (attrType.equals("boolean") || attrType.equals("java.lang.Boolean")) {
+                attrValue = attrResult.getAsText();
+                Boolean value = attrValue == null || "".equals(attrValue) ? null : Boolean.valueOf(attrValue);
+                String trueChecked = (value == Boolean.TRUE ? "checked" : "");
+                String falseChecked = (value == Boolean.FALSE ? "checked" : "");
+                String naChecked = value == null ? "checked" : "";
+                out.write("<input type='radio' name='" + attrName + "' value='True' " + trueChecked + "/>True");
+                out.write("<input type='radio' name='" + attrName + "' value='False' " + falseChecked + "/>False");
+                // For wrappers, enable a 'null' selection
+                if (attrType.equals("java.lang.Boolean") && PropertyEditors.isNullHandlingEnabled()) {
+                    out.write("<input type='radio' name='" + attrName + "' value='' " + naChecked + "/>True");
+                }
+
+            } else if (attrInfo.isReadable()) {
+                long length = ValueSlicer.length(attrResult);
+                if (length < 0) {
+                    attrValue = attrResult.getAsText();
+                    length = attrValue != null ? attrValue.length() : 0;
+                }
+                if (length > ValueSlicer.MAX_CHARS) {
+                    // a truncated value must not be submitted, so it is shown rather than edited
+                    writeSlice(out, name, attrName, attrResult);
+                } else {
+                    if (attrValue == null) {
+                        attrValue = attrResult.getAsText();
+                    }
+                    attrValue = fixValueForAttribute(attrValue);
+                    if (String.valueOf(attrValue).indexOf(SEP) == -1) {
+                        out.write("<input type='text' size='80' name='" + attrName + "' value='" + translateMetaCharacters(attrValue) + "' " + readonly + "/>");
+                    } else {
+                        out.write("<textarea cols='80' rows='10' type='text' name='" + attrName + "' " + readonly + ">" + attrValue + "</textarea>");
+                    }
+                }
+            } else {
+                out.write("<input type='text' name='" + attrName + "' " + readonly + "/>");
+            }
+        } else {
+            if (attrType.equals("[Ljavax.management.ObjectName;")) {
+                ObjectName[] names = (ObjectName[]) attrResult.result;
+                if (names != null) {
+                    for (int i = 0; i < Math.min(names.length, ArrayRenderer.MAX_ELEMENTS); i++) {
+                        out.write("<p align='center'><a href='HtmlAdaptor?action=inspectMBean&name=" + URLEncoder.encode(names[i] + "", "UTF-8") + ">" + names[i] + "</a></p>");
+                    }
+                }
+            } else if (attrType.startsWith("[")) {
+                Object arrayObject = attrResult.result;
+                if (arrayObject != null && arrayObject.getClass().isArray()) {
+                    ArrayRenderer.write(out, arrayObject, SEP);
+                }
+            } else {
+                writeSlice(out, name, attrName, attrResult);
+            }
+        }
+
+        if (attrType.equals("javax.management.ObjectName") && attrResult.throwable == null) {
+            if (attrValue == null) {
+                attrValue = attrResult.getAsText();
+            }
+            if (attrValue != null) {
+                out.write("<p align='center'><a href='HtmlAdaptor?action=inspectMBean&name=" + URLEncoder.encode(attrValue, "UTF-8") + "'>View MBean</a></p>");
+            }
+        }
+        out.write("    </pre>");
+        out.write(SEP);
+        writeAge(out, attrResult);
+    }
+
+    private static void writeAge(Writer out, AttrResultInfo attrResult) throws IOException {
+
+        if (attrResult.cached) {
+            out.write("    <span class='age'>read " + (attrResult.getAge() / 1000) + " s ago</span>");
+            out.write(SEP);
+        }
+    }
+
+    /**
+     * Write the first slice of a value, escaped, and a link to the next slice when the value
+     * is longer.
+     */
+    private static void writeSlice(Writer out, String name, String attrName, AttrResultInfo attrResult) throws IOException {
+
+        long next = ValueSlicer.write(out, attrResult, 0, true);
+        if (next >= 0) {
+            out.write("<a class='more' href='HtmlAdaptor?action=attributeSlice&name=" + URLEncoder.encode(name, "UTF-8")
+                    + "&attr=" + URLEncoder.encode(attrName, "UTF-8") + "&offset=" + next
+                    + "' onclick='return loadAttributeSlice(this)'>load more</a>");
+        }
+    }
+
+    private static String fixValueForAttribute(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+        String s = String.valueOf(value);
+        StringWriter sw = new StringWriter();
+        HTMLWriter hw = new HTMLWriter(sw);
+        try {
+            hw.write(s);
+            s = sw.toString();
+        } catch (Exception e) {
+        }
+        return s;
+    }
+
+    /**
+     * Translate HTML tags and single and double quotes.
+     */
+    private static String translateMetaCharacters(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+        String s = String.valueOf(value);
+        String sanitizedName = s.replace("<", "&lt;");
+        sanitizedName = sanitizedName.replace(">", "&gt;");
+        sanitizedName = sanitizedName.replace("\"", "&quot;");
+        sanitizedName = sanitizedName.replace("\'", "&apos;");
+        return sanitizedName;
+    }
+
+}
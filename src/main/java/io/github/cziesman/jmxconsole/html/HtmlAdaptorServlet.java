@@ -22,16 +22,28 @@
 package io.github.cziesman.jmxconsole.html;
 
 import java.io.IOException;
+import java.io.Writer;
 import java.net.URLDecoder;
+import java.net.URLEncoder;
 import java.security.AccessController;
 import java.security.PrivilegedActionException;
 import java.security.PrivilegedExceptionAction;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Enumeration;
 import java.util.HashMap;
-import java.util.Iterator;
-
-import javax.management.AttributeList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import javax.management.MBeanAttributeInfo;
+import javax.management.MBeanOperationInfo;
+import javax.management.MBeanParameterInfo;
+import javax.management.ObjectName;
 import javax.servlet.RequestDispatcher;
 import javax.servlet.ServletConfig;
 import javax.servlet.ServletException;
@@ -42,9 +54,15 @@ import javax.servlet.http.HttpSession;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import io.github.cziesman.jmxconsole.control.AttrResultInfo;
+import io.github.cziesman.jmxconsole.control.FanOut;
+import io.github.cziesman.jmxconsole.control.AttrUpdateInfo;
 import io.github.cziesman.jmxconsole.control.OpResultInfo;
+import io.github.cziesman.jmxconsole.control.OperationJobs;
 import io.github.cziesman.jmxconsole.control.Server;
 import io.github.cziesman.jmxconsole.model.DomainData;
+import io.github.cziesman.jmxconsole.model.DomainDataPage;
+import io.github.cziesman.jmxconsole.model.DomainSummary;
 import io.github.cziesman.jmxconsole.model.MBeanData;
 
 /**
@@ -59,16 +77,114 @@ public class HtmlAdaptorServlet extends HttpServlet {
 
     private static final String FILTER_PARAM = "filter";
 
+    private static final String VIEW_PARAM = "view";
+
+    /**
+     * Lists only the domains and their MBean counts
+     */
+    private static final String SUMMARY_VIEW = "summary";
+
+    /**
+     * Lists the MBeans of all domains
+     */
+    private static final String ALL_VIEW = "all";
+
+    private static final String CURSOR_PARAM = "cursor";
+
+    private static final String QUERY_PARAM = "query";
+
+    private static final String TEXT_PARAM = "text";
+
+    private static final String MAX_PARAM = "max";
+
+    /**
+     * The number of filter suggestions returned unless the request asks for another number
+     */
+    private static final int DEFAULT_SUGGESTIONS = 10;
+
+    private static final int MAX_SUGGESTIONS = 50;
+
+    private static final String ATTRIBUTE_PARAM = "attr";
+
+    /**
+     * Set to INLINE_VALUES to render the attribute values with the inspector page instead of
+     * loading them after it
+     */
+    private static final String VALUES_PARAM = "values";
+
+    private static final String INLINE_VALUES = "inline";
+
+    private static final String OFFSET_PARAM = "offset";
+
+    private static final String PATH_PARAM = "path";
+
+    private static final String PAGE_PARAM = "page";
+
+    /**
+     * Set to true to invoke an operation in the background as a job
+     */
+    private static final String ASYNC_PARAM = "async";
+
+    private static final String ID_PARAM = "id";
+
+    /**
+     * Milliseconds the job action waits for the job to finish before answering
+     */
+    private static final String WAIT_PARAM = "wait";
+
+    private static final long MAX_WAIT = 60000;
+
+    /**
+     * An ObjectName pattern of the MBeans an operation is invoked on, or attributes are set on
+     */
+    private static final String PATTERN_PARAM = "pattern";
+
+    private static final String PARALLELISM_PARAM = "parallelism";
+
+    private static final String TIMEOUT_PARAM = "timeout";
+
+    private static final String PAGE_SIZE_PARAM = "pageSize";
+
+    /**
+     * The number of MBeans listed per page unless the request asks for another page size
+     */
+    private static final int DEFAULT_PAGE_SIZE = Integer.getInteger("jmxconsole.page.size", 1000);
+
+    /**
+     * The upper bound of the page size a request may ask for
+     */
+    private static final int MAX_PAGE_SIZE = 10000;
+
     private static final String DISPLAY_MBEANS_ACTION = "displayMBeans";
 
+    private static final String SEARCH_ACTION = "search";
+
+    private static final String SUGGEST_ACTION = "suggest";
+
     private static final String INSPECT_MBEAN_ACTION = "inspectMBean";
 
+    private static final String ATTRIBUTE_VALUES_ACTION = "attributeValues";
+
+    private static final String ATTRIBUTE_SLICE_ACTION = "attributeSlice";
+
+    private static final String OPEN_DATA_ACTION = "openData";
+
     private static final String UPDATE_ATTRIBUTES_ACTION = "updateAttributes";
 
+    private static final String UPDATE_ATTRIBUTES_ON_PATTERN_ACTION = "updateAttributesOnPattern";
+
     private static final String INVOKE_OP_ACTION = "invokeOp";
 
     private static final String INVOKE_OP_BY_NAME_ACTION = "invokeOpByName";
 
+    private static final String INVOKE_OP_ON_PATTERN_ACTION = "invokeOpOnPattern";
+
+    private static final String JOB_ACTION = "job";
+
+    private static final String JOB_STATUS_ACTION = "jobStatus";
+
+    private static final String CANCEL_JOB_ACTION = "cancelJob";
+
     private static final Logger LOG = LoggerFactory.getLogger(HtmlAdaptorServlet.class);
 
     /**
@@ -85,6 +201,7 @@ public class HtmlAdaptorServlet extends HttpServlet {
 
     public void destroy() {
 
+        Server.shutdown();
     }
 
     protected void doGet(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
@@ -109,118 +226,188 @@ public class HtmlAdaptorServlet extends HttpServlet {
         case DISPLAY_MBEANS_ACTION:
             displayMBeans(request, response);
             break;
+        case SEARCH_ACTION:
+            searchMBeans(request, response);
+            break;
+        case SUGGEST_ACTION:
+            suggest(request, response);
+            break;
         case INSPECT_MBEAN_ACTION:
             inspectMBean(request, response);
             break;
+        case ATTRIBUTE_VALUES_ACTION:
+            attributeValues(request, response);
+            break;
+        case ATTRIBUTE_SLICE_ACTION:
+            attributeSlice(request, response);
+            break;
+        case OPEN_DATA_ACTION:
+            openData(request, response);
+            break;
         case UPDATE_ATTRIBUTES_ACTION:
             updateAttributes(request, response);
             break;
+        case UPDATE_ATTRIBUTES_ON_PATTERN_ACTION:
+            updateAttributesOnPattern(request, response);
+            break;
         case INVOKE_OP_ACTION:
             invokeOp(request, response);
             break;
         case INVOKE_OP_BY_NAME_ACTION:
             invokeOpByName(request, response);
             break;
+        case INVOKE_OP_ON_PATTERN_ACTION:
+            invokeOpOnPattern(request, response);
+            break;
+        case JOB_ACTION:
+            displayJob(request, response);
+            break;
+        case JOB_STATUS_ACTION:
+            jobStatus(request, response);
+            break;
+        case CANCEL_JOB_ACTION:
+            cancelJob(request, response);
+            break;
         }
     }
 
     /**
-     * Display all mbeans categorized by domain
+     * Display all mbeans categorized by domain. Without a filter only the domains and
+     * their MBean counts are shown unless the full view has been requested.
      */
     private void displayMBeans(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
-        // get ObjectName filter from request or session context
+        // get ObjectName filter and view from request or session context
         HttpSession session = request.getSession(false);
         String filter = request.getParameter(FILTER_PARAM);
+        String view = request.getParameter(VIEW_PARAM);
+
+        if (view == null && session != null) {
+            view = (String) session.getAttribute(VIEW_PARAM);
+        }
+        if (!ALL_VIEW.equals(view)) {
+            view = SUMMARY_VIEW;
+        }
 
         if (filter == null && session != null) {
             // try using previously provided filter from session context
             filter = (String) session.getAttribute(FILTER_PARAM);
         }
 
-        if (filter != null && !filter.isEmpty()) {
-            // Strip any enclosing quotes
-            if (filter.charAt(0) == '"') {
-                filter = filter.substring(1);
-            }
-            if (filter.charAt(filter.length() - 1) == '"') {
-                filter = filter.substring(0, filter.length() - 2);
-            }
-
-            // be a litte it tolerant to user input
-            String domain = "*";
-            String props = "*,*";
-
-            int separator = filter.indexOf(':');
-            int assignment = filter.indexOf('=');
-
-            if (separator == -1 && assignment != -1) {
-                // assume properties only
-                props = filter.trim();
-            } else if (separator == -1 && assignment == -1) {
-                // assume domain name only
-                domain = filter.trim();
-            } else {
-                // domain and properties
-                domain = filter.substring(0, separator).trim();
-                props = filter.substring(separator + 1).trim();
-            }
-
-            if (domain.isEmpty()) {
-                domain = "*";
-            }
-
-            if (props.isEmpty()) {
-                props = "*,*";
-            }
-            if (props.endsWith(",")) {
-                props += "*";
-            }
-            if (!props.endsWith(",*")) {
-                props += ",*";
-            }
-            if (props.equals("*,*")) {
-                props = "*";
-            }
-
-            filter = domain + ":" + props;
-
-            if (filter.equals("*:*")) {
-                filter = "";
-            }
-        } else {
-            filter = "";
-        }
-
-        // Change "<" and ">" to "&lt;" and "&gt;" in filter string
-        filter = translateMetaCharacters(filter);
+        ObjectNameFilter parsedFilter = ObjectNameFilter.get(filter);
+        filter = parsedFilter.getFilter();
 
-        // update request filter and store filter in session context,
-        // so it can be used when no filter has been submitted in
+        // update request filter and view and store them in session context,
+        // so they can be used when none has been submitted in
         // current request
         request.setAttribute(FILTER_PARAM, filter);
+        request.setAttribute(VIEW_PARAM, view);
 
         if (session != null) {
             session.setAttribute(FILTER_PARAM, filter);
+            session.setAttribute(VIEW_PARAM, view);
+        }
+
+        String cursor = request.getParameter(CURSOR_PARAM);
+        if (cursor != null && cursor.isEmpty()) {
+            cursor = null;
+        }
+        int pageSize = getPageSize(request);
+        boolean summary = filter.isEmpty() && SUMMARY_VIEW.equals(view);
+        if (isNotModified(request, response, getListingTag(summary, filter + '|' + view + '|' + cursor + '|' + pageSize))) {
+            return;
+        }
+
+        RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/displayMBeans.jsp");
+        if (summary) {
+            try {
+                request.setAttribute("domains", getDomainSummaries());
+            } catch (Exception e) {
+                throw new ServletException("Failed to get MBean domains", e);
+            }
+            rd.forward(request, response);
+            return;
         }
 
-        Iterator<DomainData> mbeans;
+        ObjectName pattern = parsedFilter.getPattern();
+        if (parsedFilter.getError() != null) {
+            request.setAttribute("filterError", parsedFilter.getError());
+            cursor = null;
+        }
+        DomainDataPage page;
         try {
-            mbeans = getDomainData(filter);
+            page = getDomainDataPage(pattern, cursor, pageSize);
         } catch (Exception e) {
             request.setAttribute("filterError", e.getMessage());
             try {
-                mbeans = getDomainData("");
+                page = getDomainDataPage(null, null, pageSize);
             } catch (Exception e1) {
                 throw new ServletException("Failed to get MBeans", e);
             }
         }
-        request.setAttribute("mbeans", mbeans);
+        request.setAttribute("mbeans", page.iterator());
+        request.setAttribute("nextCursor", page.getNextCursor());
+        request.setAttribute(PAGE_SIZE_PARAM, pageSize);
+        rd.forward(request, response);
+    }
+
+    /**
+     * Display the mbeans matching a full text search, categorized by domain
+     */
+    private void searchMBeans(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String query = request.getParameter(QUERY_PARAM);
+        if (query == null) {
+            query = "";
+        }
+        LOG.trace("searchMBeans, query={}", query);
+        HttpSession session = request.getSession(false);
+        String filter = session != null ? (String) session.getAttribute(FILTER_PARAM) : null;
+        request.setAttribute(FILTER_PARAM, filter != null ? filter : "");
+        request.setAttribute(QUERY_PARAM, query);
+        if (isNotModified(request, response, getSearchTag(filter + '|' + query))) {
+            return;
+        }
+        try {
+            request.setAttribute("mbeans", search(query).iterator());
+        } catch (Exception e) {
+            throw new ServletException("Failed to search MBeans", e);
+        }
         RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/displayMBeans.jsp");
         rd.forward(request, response);
     }
 
     /**
-     * Display an mbeans attributes and operations
+     * Return completions of a partially typed ObjectName filter as a JSON array of strings
+     */
+    private void suggest(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String text = request.getParameter(TEXT_PARAM);
+        if (text == null) {
+            text = "";
+        }
+        int max = DEFAULT_SUGGESTIONS;
+        String value = request.getParameter(MAX_PARAM);
+        if (value != null && !value.isEmpty()) {
+            try {
+                max = Math.max(1, Math.min(MAX_SUGGESTIONS, Integer.parseInt(value)));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        List<String> suggestions;
+        try {
+            suggestions = suggest(text, max);
+        } catch (Exception e) {
+            throw new ServletException("Failed to suggest filters", e);
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        Json.writeArray(response.getWriter(), suggestions);
+    }
+
+    /**
+     * Display an mbeans attributes and operations. The attribute values are loaded by the page
+     * through the attribute values action unless inline values are requested.
      */
     private void inspectMBean(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
 
@@ -228,6 +415,15 @@ public class HtmlAdaptorServlet extends HttpServlet {
         LOG.trace("inspectMBean, name=" + name);
         try {
             MBeanData data = getMBeanData(name);
+            if (INLINE_VALUES.equals(request.getParameter(VALUES_PARAM))) {
+                AttrResultInfo[] attrResults = getAttributeResults(data.getName(), data.getMetaData().getAttributes());
+                if (isNotModified(request, response, getInspectTag(data, attrResults))) {
+                    return;
+                }
+                request.setAttribute("attrResults", attrResults);
+            } else if (isNotModified(request, response, getInspectTag(data, null))) {
+                return;
+            }
             request.setAttribute("mbeanData", data);
             RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/inspectMBean.jsp");
             rd.forward(request, response);
@@ -236,6 +432,116 @@ public class HtmlAdaptorServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Answer the rendered value cells of some attributes of an mbean as a JSON object keyed by
+     * attribute name, in the order the attributes were requested
+     */
+    private void attributeValues(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String name = request.getParameter("name");
+        String[] attrNames = request.getParameterValues(ATTRIBUTE_PARAM);
+        LOG.trace("attributeValues, name={}", name);
+        MBeanAttributeInfo[] attributesInfo;
+        AttrResultInfo[] attrResults;
+        try {
+            MBeanData data = getMBeanData(name);
+            attributesInfo = selectAttributes(data.getMetaData().getAttributes(), attrNames);
+            attrResults = getAttributeResults(data.getName(), attributesInfo);
+            if (isNotModified(request, response, getInspectTag(data, attrResults))) {
+                return;
+            }
+        } catch (Exception e) {
+            throw new ServletException("Failed to get attribute values", e);
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        // stream each rendered cell into its JSON string rather than building it first
+        Writer out = response.getWriter();
+        out.write('{');
+        for (int i = 0; i < attributesInfo.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            Json.writeString(out, attributesInfo[i].getName());
+            out.write(':');
+            Writer value = Json.openString(out);
+            AttributeValueRenderer.render(name, attributesInfo[i], attrResults[i], value);
+            value.close();
+        }
+        out.write('}');
+    }
+
+    /**
+     * Answer the text of an attribute value from an offset on as plain text, at most
+     * ValueSlicer.MAX_CHARS characters of it, which the X-Slice-Length header tells. A
+     * response shorter than that ends the value.
+     */
+    private void attributeSlice(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String name = request.getParameter("name");
+        String attrName = request.getParameter(ATTRIBUTE_PARAM);
+        LOG.trace("attributeSlice, name={}, attr={}", name, attrName);
+        long offset = 0;
+        String value = request.getParameter(OFFSET_PARAM);
+        if (value != null && !value.isEmpty()) {
+            try {
+                offset = Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        AttrResultInfo attrResult = getAttributeResult(name, attrName);
+        if (attrResult == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such attribute");
+            return;
+        }
+        response.setContentType("text/plain");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        response.setHeader("X-Content-Type-Options", "nosniff");
+        response.setIntHeader("X-Slice-Length", ValueSlicer.MAX_CHARS);
+        ValueSlicer.write(response.getWriter(), attrResult, offset, false);
+    }
+
+    /**
+     * Answer a page of the open data item at a path in an attribute value as an html fragment
+     */
+    private void openData(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String name = request.getParameter("name");
+        String attrName = request.getParameter(ATTRIBUTE_PARAM);
+        String[] segments = request.getParameterValues(PATH_PARAM);
+        LOG.trace("openData, name={}, attr={}", name, attrName);
+        int page = 0;
+        String value = request.getParameter(PAGE_PARAM);
+        if (value != null && !value.isEmpty()) {
+            try {
+                page = Math.max(0, Integer.parseInt(value));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        AttrResultInfo attrResult = getAttributeResult(name, attrName);
+        if (attrResult == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such attribute");
+            return;
+        }
+        List<String> path = new ArrayList<>();
+        if (segments != null) {
+            Collections.addAll(path, segments);
+        }
+        Object item;
+        try {
+            item = OpenDataRenderer.resolve(attrResult.result, path);
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, e.getMessage());
+            return;
+        }
+        response.setContentType("text/html");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        OpenDataRenderer.write(response.getWriter(), name, attrName, path, item, page);
+    }
+
     /**
      * Update the writable attributes of an mbean
      */
@@ -247,7 +553,7 @@ public class HtmlAdaptorServlet extends HttpServlet {
         final HashMap<String, String> attributes = new HashMap<>();
         while (paramNames.hasMoreElements()) {
             String param = paramNames.nextElement();
-            if (param.equals("name") || param.equals("action")) {
+            if (param.equals("name") || param.equals("action") || param.equals(VALUES_PARAM)) {
                 continue;
             }
             String value = request.getParameter(param);
@@ -260,9 +566,13 @@ public class HtmlAdaptorServlet extends HttpServlet {
         }
 
         try {
-            AttributeList newAttributes = setAttributes(name, attributes);
+            // the MBeanInfo is looked up once, for the update and the re-render
             MBeanData data = getMBeanData(name);
+            request.setAttribute("attrUpdates", setAttributes(data, attributes));
             request.setAttribute("mbeanData", data);
+            if (INLINE_VALUES.equals(request.getParameter(VALUES_PARAM))) {
+                request.setAttribute("attrResults", getAttributeResults(data.getName(), data.getMetaData().getAttributes()));
+            }
             RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/inspectMBean.jsp");
             rd.forward(request, response);
         } catch (Exception e) {
@@ -270,6 +580,37 @@ public class HtmlAdaptorServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Set attributes on all mbeans matching a pattern. Every parameter but the action, the
+     * pattern, the parallelism and the timeout is the new value of an attribute.
+     */
+    private void updateAttributesOnPattern(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        final String pattern = request.getParameter(PATTERN_PARAM);
+        LOG.trace("updateAttributesOnPattern, pattern={}", pattern);
+        if (pattern == null || pattern.isEmpty()) {
+            throw new ServletException("No pattern given in updateAttributesOnPattern form");
+        }
+        Enumeration<String> paramNames = request.getParameterNames();
+        final Map<String, String> attributes = new LinkedHashMap<>();
+        while (paramNames.hasMoreElements()) {
+            String param = paramNames.nextElement();
+            if (param.equals(ACTION_PARAM) || param.equals(PATTERN_PARAM) || param.equals(PARALLELISM_PARAM) || param.equals(TIMEOUT_PARAM)) {
+                continue;
+            }
+            String value = request.getParameter(param);
+            if (value == null || value.isEmpty()) {
+                continue;
+            }
+            attributes.put(param, value);
+        }
+        if (attributes.isEmpty()) {
+            throw new ServletException("No attribute given in updateAttributesOnPattern form");
+        }
+        request.setAttribute("attributes", attributes);
+        fanOut(request, response, pattern, () -> Server.getFanOutUpdateTargets(pattern, attributes));
+    }
+
     /**
      * Invoke an mbean operation given the index into the MBeanOperationInfo{} array of the mbean.
      */
@@ -285,6 +626,32 @@ public class HtmlAdaptorServlet extends HttpServlet {
         }
         final int index = Integer.parseInt(methodIndex);
 
+        String pattern = request.getParameter(PATTERN_PARAM);
+        if (pattern != null && !pattern.isEmpty()) {
+            // the operation of this mbean, invoked on all mbeans matching the pattern
+            MBeanOperationInfo op;
+            try {
+                op = getMBeanData(name).getMetaData().getOperations()[index];
+            } catch (Exception e) {
+                throw new ServletException("Failed to get MBean data", e);
+            }
+            MBeanParameterInfo[] paramInfo = op.getSignature();
+            String[] argTypes = new String[paramInfo.length];
+            for (int p = 0; p < paramInfo.length; p++) {
+                argTypes[p] = paramInfo[p].getType();
+            }
+            request.setAttribute("methodName", op.getName());
+            fanOut(request, response, pattern, () -> Server.getFanOutTargets(pattern, op.getName(), argTypes, args));
+            return;
+        }
+        if (Boolean.parseBoolean(request.getParameter(ASYNC_PARAM))) {
+            try {
+                redirectToJob(request, response, submitOp(name, index, args));
+            } catch (Exception e) {
+                throw new ServletException("Failed to invoke operation", e);
+            }
+            return;
+        }
         try {
             OpResultInfo opResult = invokeOp(name, index, args);
             request.setAttribute("opResultInfo", opResult);
@@ -308,6 +675,14 @@ public class HtmlAdaptorServlet extends HttpServlet {
         if (methodName == null) {
             throw new ServletException("No methodName given in invokeOpByName form");
         }
+        if (Boolean.parseBoolean(request.getParameter(ASYNC_PARAM))) {
+            try {
+                redirectToJob(request, response, submitOpByName(name, methodName, argTypes, args));
+            } catch (Exception e) {
+                throw new ServletException("Failed to invoke operation", e);
+            }
+            return;
+        }
         try {
             OpResultInfo opResult = invokeOpByName(name, methodName, argTypes, args);
             request.setAttribute("opResultInfo", opResult);
@@ -318,6 +693,170 @@ public class HtmlAdaptorServlet extends HttpServlet {
         }
     }
 
+    /**
+     * Invoke an operation given its name, and optionally its signature, on all mbeans
+     * matching a pattern.
+     */
+    private void invokeOpOnPattern(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        String pattern = request.getParameter(PATTERN_PARAM);
+        LOG.trace("invokeOpOnPattern, pattern={}", pattern);
+        String methodName = request.getParameter("methodName");
+        if (pattern == null || pattern.isEmpty()) {
+            throw new ServletException("No pattern given in invokeOpOnPattern form");
+        }
+        if (methodName == null) {
+            throw new ServletException("No methodName given in invokeOpOnPattern form");
+        }
+        String[] argTypes = request.getParameterValues("argType");
+        String[] args = getArgs(request);
+        request.setAttribute("methodName", methodName);
+        fanOut(request, response, pattern, () -> Server.getFanOutTargets(pattern, methodName, argTypes, args));
+    }
+
+    /**
+     * Resolve the mbeans matching a pattern and let displayFanOut.jsp call them, streaming the
+     * outcome of each as it completes
+     */
+    private void fanOut(HttpServletRequest request, HttpServletResponse response, String pattern,
+                        PrivilegedExceptionAction<List<FanOut.Target>> resolve) throws ServletException, IOException {
+
+        List<FanOut.Target> targets;
+        int maxParallelism;
+        try {
+            targets = AccessController.doPrivileged(resolve);
+            maxParallelism = AccessController.doPrivileged((PrivilegedExceptionAction<Integer>) () -> Server.getFanOut().getMaxThreads());
+        } catch (PrivilegedActionException e) {
+            throw new ServletException("Failed to resolve the MBeans matching " + pattern, e.getException());
+        }
+        int parallelism = Server.FAN_OUT_PARALLELISM;
+        String value = request.getParameter(PARALLELISM_PARAM);
+        if (value != null && !value.isEmpty()) {
+            try {
+                parallelism = Integer.parseInt(value);
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        long timeout = Server.FAN_OUT_TIMEOUT;
+        value = request.getParameter(TIMEOUT_PARAM);
+        if (value != null && !value.isEmpty()) {
+            try {
+                timeout = Math.max(0, Long.parseLong(value));
+            } catch (NumberFormatException ignore) {
+            }
+        }
+        request.setAttribute("targets", targets);
+        request.setAttribute(PATTERN_PARAM, pattern);
+        request.setAttribute(PARALLELISM_PARAM, Math.max(1, Math.min(maxParallelism, parallelism)));
+        request.setAttribute(TIMEOUT_PARAM, timeout);
+        RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/displayFanOut.jsp");
+        rd.forward(request, response);
+    }
+
+    /**
+     * Display a background operation: its result once it has finished, otherwise its state,
+     * refreshed until it finishes. With the wait parameter the answer waits, up to MAX_WAIT,
+     * for the operation to finish.
+     */
+    private void displayJob(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        OperationJobs.Job job = getJob(request.getParameter(ID_PARAM));
+        if (job == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such job");
+            return;
+        }
+        String wait = request.getParameter(WAIT_PARAM);
+        if (wait != null && !wait.isEmpty() && !job.isDone()) {
+            try {
+                job.get(Math.max(0, Math.min(MAX_WAIT, Long.parseLong(wait))), TimeUnit.MILLISECONDS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (NumberFormatException | ExecutionException | CancellationException | TimeoutException ignore) {
+                // the job is displayed as it is
+            }
+        }
+        if (job.isDone() && !job.isCancelled()) {
+            try {
+                request.setAttribute("opResultInfo", job.getResult());
+            } catch (Exception e) {
+                throw new ServletException("Failed to invoke operation", e);
+            }
+            RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/displayOpResult.jsp");
+            rd.forward(request, response);
+            return;
+        }
+        request.setAttribute("job", job);
+        RequestDispatcher rd = this.getServletContext().getRequestDispatcher("/displayJob.jsp");
+        rd.forward(request, response);
+    }
+
+    /**
+     * Answer the state of a background operation as a JSON object
+     */
+    private void jobStatus(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        OperationJobs.Job job = getJob(request.getParameter(ID_PARAM));
+        if (job == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such job");
+            return;
+        }
+        String state = "running";
+        if (job.isCancelled()) {
+            state = "cancelled";
+        } else if (job.isDone()) {
+            try {
+                job.getResult();
+                state = "done";
+            } catch (Exception e) {
+                state = "failed";
+            }
+        }
+        response.setContentType("application/json");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader("Cache-Control", "no-cache");
+        Writer out = response.getWriter();
+        out.write("{\"id\":");
+        Json.writeString(out, job.getId());
+        out.write(",\"name\":");
+        Json.writeString(out, job.getName().toString());
+        out.write(",\"operation\":");
+        Json.writeString(out, job.getOpName());
+        out.write(",\"state\":");
+        Json.writeString(out, state);
+        out.write(",\"started\":" + job.getStarted() + ",\"finished\":" + job.getFinished() + "}");
+    }
+
+    /**
+     * Cancel a background operation, interrupting it when it is running
+     */
+    private void cancelJob(HttpServletRequest request, HttpServletResponse response) throws ServletException, IOException {
+
+        final String id = request.getParameter(ID_PARAM);
+        LOG.trace("cancelJob, id={}", id);
+        OperationJobs.Job job = getJob(id);
+        if (job == null) {
+            response.sendError(HttpServletResponse.SC_NOT_FOUND, "No such job");
+            return;
+        }
+        try {
+            AccessController.doPrivileged((PrivilegedExceptionAction<Boolean>) () -> Server.getOperationJobs().cancel(id));
+        } catch (PrivilegedActionException e) {
+            throw new ServletException("Failed to cancel the job", e.getException());
+        }
+        redirectToJob(request, response, job);
+    }
+
+    /**
+     * Answer a submitted background operation with a redirect to its job
+     */
+    private void redirectToJob(HttpServletRequest request, HttpServletResponse response, OperationJobs.Job job) throws IOException {
+
+        response.setHeader("X-Job-Id", job.getId());
+        // like in the operation forms of the inspector, the name parameter is url encoded itself
+        String name = URLEncoder.encode(job.getName().toString(), "UTF-8");
+        response.sendRedirect("HtmlAdaptor?action=" + JOB_ACTION + "&id=" + job.getId() + "&name=" + URLEncoder.encode(name, "UTF-8"));
+    }
+
     /**
      * Extract the argN values from the request into a String[]
      */
@@ -339,13 +878,129 @@ public class HtmlAdaptorServlet extends HttpServlet {
     }
 
     /**
-     * Translate html metacharacters in filter string only '<' and '>'
+     * Set the ETag of a GET response and check it against the If-None-Match header of the
+     * request, answering with 304 Not Modified when it matches.
+     *
+     * @return true when the response has been completed with 304
+     */
+    private boolean isNotModified(HttpServletRequest request, HttpServletResponse response, String etag) {
+
+        if (!"GET".equals(request.getMethod())) {
+            return false;
+        }
+        response.setHeader("ETag", etag);
+        String ifNoneMatch = request.getHeader("If-None-Match");
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        for (String tag : ifNoneMatch.split(",")) {
+            tag = tag.trim();
+            if (tag.equals("*") || tag.equals(etag)) {
+                response.setStatus(HttpServletResponse.SC_NOT_MODIFIED);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * The validator of a listing: the generation of the registry index plus the parameters
+     * that select what is listed. The domain summary, which does not use the index, is
+     * validated by the registration version instead so the index is not built for it.
+     */
+    private String getListingTag(boolean summary, String parameters) throws ServletException {
+
+        try {
+            long generation = AccessController.doPrivileged((PrivilegedExceptionAction<Long>) () ->
+                    summary ? Server.getRegistrationVersion() : Server.getRegistryIndex().getGeneration());
+            return "W/\"" + Long.toHexString(generation) + '-' + Integer.toHexString(parameters.hashCode()) + '"';
+        } catch (PrivilegedActionException e) {
+            throw new ServletException("Failed to get the registry generation", e.getException());
+        }
+    }
+
+    /**
+     * The validator of a search: the version of the search index plus the parameters of the
+     * search
      */
-    private String translateMetaCharacters(String s) {
+    private String getSearchTag(String parameters) throws ServletException {
 
-        s = s.replaceAll("<", "&lt;");
-        s = s.replaceAll(">", "&gt;");
-        return s;
+        try {
+            long version = AccessController.doPrivileged((PrivilegedExceptionAction<Long>) Server::getSearchVersion);
+            return "W/\"s" + Long.toHexString(version) + '-' + Integer.toHexString(parameters.hashCode()) + '"';
+        } catch (PrivilegedActionException e) {
+            throw new ServletException("Failed to get the search index version", e.getException());
+        }
+    }
+
+    /**
+     * The validator of an MBean view: the identity of the cached MBeanInfo plus a digest of
+     * the attribute values, when the view includes them
+     */
+    private String getInspectTag(MBeanData data, AttrResultInfo[] attrResults) {
+
+        String tag = Integer.toHexString(System.identityHashCode(data.getMetaData()));
+        if (attrResults != null) {
+            tag += '-' + Integer.toHexString(Server.getAttributeDigest(attrResults));
+        }
+        return "W/\"" + tag + '"';
+    }
+
+    /**
+     * Pick the named attributes, in the order of the names. Unknown names are skipped.
+     */
+    private static MBeanAttributeInfo[] selectAttributes(MBeanAttributeInfo[] attributesInfo, String[] attrNames) {
+
+        if (attrNames == null) {
+            return new MBeanAttributeInfo[0];
+        }
+        Map<String, MBeanAttributeInfo> byName = new HashMap<>();
+        for (MBeanAttributeInfo attrInfo : attributesInfo) {
+            byName.put(attrInfo.getName(), attrInfo);
+        }
+        List<MBeanAttributeInfo> selected = new ArrayList<>(attrNames.length);
+        for (String attrName : attrNames) {
+            MBeanAttributeInfo attrInfo = byName.get(attrName);
+            if (attrInfo != null) {
+                selected.add(attrInfo);
+            }
+        }
+        return selected.toArray(new MBeanAttributeInfo[0]);
+    }
+
+    /**
+     * Read an attribute of an mbean
+     *
+     * @return the value, or null when the mbean has no such attribute
+     */
+    private AttrResultInfo getAttributeResult(String name, String attrName) throws ServletException {
+
+        try {
+            MBeanData data = getMBeanData(name);
+            MBeanAttributeInfo[] attributesInfo = selectAttributes(data.getMetaData().getAttributes(), new String[] { attrName });
+            if (attributesInfo.length == 0) {
+                return null;
+            }
+            return getAttributeResults(data.getName(), attributesInfo)[0];
+        } catch (Exception e) {
+            throw new ServletException("Failed to get attribute value", e);
+        }
+    }
+
+    /**
+     * Get the requested page size, bounded by MAX_PAGE_SIZE
+     */
+    private int getPageSize(HttpServletRequest request) {
+
+        String value = request.getParameter(PAGE_SIZE_PARAM);
+        if (value == null || value.isEmpty()) {
+            return DEFAULT_PAGE_SIZE;
+        }
+        try {
+            return Math.max(1, Math.min(MAX_PAGE_SIZE, Integer.parseInt(value)));
+        } catch (NumberFormatException e) {
+            return DEFAULT_PAGE_SIZE;
+        }
     }
 
     private MBeanData getMBeanData(final String name) throws PrivilegedActionException {
@@ -359,9 +1014,29 @@ public class HtmlAdaptorServlet extends HttpServlet {
         });
     }
 
-    private Iterator<DomainData> getDomainData(final String filter) throws PrivilegedActionException {
+    private AttrResultInfo[] getAttributeResults(final String name, final MBeanAttributeInfo[] attributesInfo) throws PrivilegedActionException {
 
-        return AccessController.doPrivileged((PrivilegedExceptionAction<Iterator<DomainData>>) () -> Server.getDomainData(filter));
+        return AccessController.doPrivileged((PrivilegedExceptionAction<AttrResultInfo[]>) () -> Server.getMBeanAttributeResultInfos(name, attributesInfo));
+    }
+
+    private DomainDataPage getDomainDataPage(final ObjectName pattern, final String cursor, final int pageSize) throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<DomainDataPage>) () -> Server.getDomainDataPage(pattern, cursor, pageSize));
+    }
+
+    private List<DomainData> search(final String query) throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<List<DomainData>>) () -> Server.search(query));
+    }
+
+    private List<String> suggest(final String text, final int max) throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<List<String>>) () -> Server.suggest(text, max));
+    }
+
+    private List<DomainSummary> getDomainSummaries() throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<List<DomainSummary>>) Server::getDomainSummaries);
     }
 
     private OpResultInfo invokeOp(final String name, final int index, final String[] args) throws PrivilegedActionException {
@@ -374,9 +1049,31 @@ public class HtmlAdaptorServlet extends HttpServlet {
         return AccessController.doPrivileged((PrivilegedExceptionAction<OpResultInfo>) () -> Server.invokeOpByName(name, methodName, argTypes, args));
     }
 
-    private AttributeList setAttributes(final String name, final HashMap<String, String> attributes) throws PrivilegedActionException {
+    private OperationJobs.Job submitOp(final String name, final int index, final String[] args) throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<OperationJobs.Job>) () -> Server.submitOp(name, index, args));
+    }
+
+    private OperationJobs.Job submitOpByName(final String name, final String methodName, final String[] argTypes, final String[] args) throws PrivilegedActionException {
+
+        return AccessController.doPrivileged((PrivilegedExceptionAction<OperationJobs.Job>) () -> Server.submitOpByName(name, methodName, argTypes, args));
+    }
+
+    private OperationJobs.Job getJob(final String id) throws ServletException {
+
+        if (id == null) {
+            return null;
+        }
+        try {
+            return AccessController.doPrivileged((PrivilegedExceptionAction<OperationJobs.Job>) () -> Server.getOperationJobs().get(id));
+        } catch (PrivilegedActionException e) {
+            throw new ServletException("Failed to get the job", e.getException());
+        }
+    }
+
+    private AttrUpdateInfo[] setAttributes(final MBeanData data, final HashMap<String, String> attributes) throws PrivilegedActionException {
 
-        return AccessController.doPrivileged((PrivilegedExceptionAction<AttributeList>) () -> Server.setAttributes(name, attributes));
+        return AccessController.doPrivileged((PrivilegedExceptionAction<AttrUpdateInfo[]>) () -> Server.setAttributes(data, attributes));
     }
 
 }
\ No newline at end of file
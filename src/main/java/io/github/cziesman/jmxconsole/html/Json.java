@@ -0,0 +1,154 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+
+/**
+ * Minimal helpers for writing the JSON responses of the console.
+ */
+public final class Json {
+
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+
+    private Json() {
+
+    }
+
+    /**
+     * Write a string as a quoted and escaped JSON string.
+     *
+     * @param out the writer
+     * @param s   the string, written as null when null
+     */
+    public static void writeString(Writer out, String s) throws IOException {
+
+        if (s == null) {
+            out.write("null");
+            return;
+        }
+        out.write('"');
+        for (int i = 0; i < s.length(); i++) {
+            escape(out, s.charAt(i));
+        }
+        out.write('"');
+    }
+
+    /**
+     * Open a JSON string whose contents are everything written to the returned writer,
+     * escaped as it is written. Closing the returned writer ends the string but leaves the
+     * underlying writer open.
+     *
+     * @param out the writer
+     * @return the writer of the string contents
+     */
+    public static Writer openString(final Writer out) throws IOException {
+
+        out.write('"');
+        return new Writer() {
+
+            public void write(int c) throws IOException {
+
+                escape(out, (char) c);
+            }
+
+            public void write(char[] cbuf, int off, int len) throws IOException {
+
+                for (int i = off; i < off + len; i++) {
+                    escape(out, cbuf[i]);
+                }
+            }
+
+            public void write(String str, int off, int len) throws IOException {
+
+                for (int i = off; i < off + len; i++) {
+                    escape(out, str.charAt(i));
+                }
+            }
+
+            public void flush() throws IOException {
+
+                out.flush();
+            }
+
+            public void close() throws IOException {
+
+                out.write('"');
+            }
+        };
+    }
+
+    private static void escape(Writer out, char c) throws IOException {
+
+        switch (c) {
+        case '"':
+            out.write("\\\"");
+            break;
+        case '\\':
+            out.write("\\\\");
+            break;
+        case '\n':
+            out.write("\\n");
+            break;
+        case '\r':
+            out.write("\\r");
+            break;
+        case '\t':
+            out.write("\\t");
+            break;
+        default:
+            // escape controls, line separators and '<' so the output is safe to embed in html and scripts
+            if (c < 0x20 || c == '<' || c == '\u2028' || c == '\u2029') {
+                out.write("\\u");
+                out.write(HEX[(c >> 12) & 0xf]);
+                out.write(HEX[(c >> 8) & 0xf]);
+                out.write(HEX[(c >> 4) & 0xf]);
+                out.write(HEX[c & 0xf]);
+            } else {
+                out.write(c);
+            }
+        }
+    }
+
+    /**
+     * Write strings as a JSON array.
+     *
+     * @param out     the writer
+     * @param strings the strings
+     */
+    public static void writeArray(Writer out, Collection<String> strings) throws IOException {
+
+        out.write('[');
+        boolean first = true;
+        for (String s : strings) {
+            if (!first) {
+                out.write(',');
+            }
+            writeString(out, s);
+            first = false;
+        }
+        out.write(']');
+    }
+
+}
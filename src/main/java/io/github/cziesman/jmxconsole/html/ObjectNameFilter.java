@@ -0,0 +1,187 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+/**
+ * A user supplied ObjectName filter, normalized and parsed once.
+ *
+ * <p>Parsed filters are kept in a bounded LRU cache keyed by the raw filter text and
+ * shared across sessions, so repeated requests with the same filter, such as refreshes
+ * reusing the session filter, skip the normalization and the ObjectName parsing.
+ */
+public class ObjectNameFilter {
+
+    /**
+     * The maximum number of cached filters
+     */
+    private static final int CACHE_SIZE = Integer.getInteger("jmxconsole.filter.cache.size", 256);
+
+    private static final Map<String, ObjectNameFilter> cache = new LinkedHashMap<String, ObjectNameFilter>(16, 0.75f, true) {
+
+        protected boolean removeEldestEntry(Map.Entry<String, ObjectNameFilter> eldest) {
+
+            return size() > CACHE_SIZE;
+        }
+    };
+
+    private static final ObjectNameFilter NONE = new ObjectNameFilter("", null, null);
+
+    private final String filter;
+
+    private final ObjectName pattern;
+
+    private final String error;
+
+    private ObjectNameFilter(String filter, ObjectName pattern, String error) {
+
+        this.filter = filter;
+        this.pattern = pattern;
+        this.error = error;
+    }
+
+    /**
+     * Get the parsed form of a raw filter string.
+     *
+     * @param text the filter as entered by the user, may be null
+     * @return the parsed filter
+     */
+    public static ObjectNameFilter get(String text) {
+
+        if (text == null || text.isEmpty()) {
+            return NONE;
+        }
+        synchronized (cache) {
+            ObjectNameFilter parsed = cache.get(text);
+            if (parsed != null) {
+                return parsed;
+            }
+        }
+        ObjectNameFilter parsed = parse(text);
+        synchronized (cache) {
+            cache.put(text, parsed);
+        }
+        return parsed;
+    }
+
+    /**
+     * @return the normalized filter with html metacharacters escaped, "" for no filter
+     */
+    public String getFilter() {
+
+        return filter;
+    }
+
+    /**
+     * @return the ObjectName pattern, or null when there is no filter or it is malformed
+     */
+    public ObjectName getPattern() {
+
+        return pattern;
+    }
+
+    /**
+     * @return why the filter could not be parsed, or null
+     */
+    public String getError() {
+
+        return error;
+    }
+
+    private static ObjectNameFilter parse(String filter) {
+        // Strip any enclosing quotes
+        if (filter.charAt(0) == '"') {
+            filter = filter.substring(1);
+        }
+        if (filter.isEmpty()) {
+            return NONE;
+        }
+        if (filter.charAt(filter.length() - 1) == '"') {
+            filter = filter.substring(0, filter.length() - 2);
+        }
+
+        // be a litte it tolerant to user input
+        String domain = "*";
+        String props = "*,*";
+
+        int separator = filter.indexOf(':');
+        int assignment = filter.indexOf('=');
+
+        if (separator == -1 && assignment != -1) {
+            // assume properties only
+            props = filter.trim();
+        } else if (separator == -1 && assignment == -1) {
+            // assume domain name only
+            domain = filter.trim();
+        } else {
+            // domain and properties
+            domain = filter.substring(0, separator).trim();
+            props = filter.substring(separator + 1).trim();
+        }
+
+        if (domain.isEmpty()) {
+            domain = "*";
+        }
+
+        if (props.isEmpty()) {
+            props = "*,*";
+        }
+        if (props.endsWith(",")) {
+            props += "*";
+        }
+        if (!props.endsWith(",*")) {
+            props += ",*";
+        }
+        if (props.equals("*,*")) {
+            props = "*";
+        }
+
+        filter = domain + ":" + props;
+
+        if (filter.equals("*:*")) {
+            return NONE;
+        }
+
+        // Change "<" and ">" to "&lt;" and "&gt;" in filter string
+        filter = translateMetaCharacters(filter);
+
+        try {
+            return new ObjectNameFilter(filter, new ObjectName(filter), null);
+        } catch (MalformedObjectNameException e) {
+            return new ObjectNameFilter(filter, null, e.getMessage());
+        }
+    }
+
+    /**
+     * Translate html metacharacters in filter string only '<' and '>'
+     */
+    private static String translateMetaCharacters(String s) {
+
+        return s.replace("<", "&lt;").replace(">", "&gt;");
+    }
+
+}
@@ -0,0 +1,415 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.lang.reflect.Array;
+import java.net.URLEncoder;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Set;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import javax.management.openmbean.OpenType;
+import javax.management.openmbean.SimpleType;
+import javax.management.openmbean.TabularData;
+import javax.management.openmbean.TabularType;
+
+/**
+ * Renders Open MBean values as tables: CompositeData as its items, TabularData and arrays as
+ * pages of their rows. Nested composite, tabular and array items are rendered as links that
+ * load them on request through the open data action, addressed by their path from the
+ * attribute value: item names of composites, index keys of table rows and positions of
+ * array elements. A row key is the text of its index values, separated by commas, with a
+ * comma or backslash inside a value escaped by a backslash; rows whose index values are not
+ * all non null simple values are shown without links.
+ */
+final class OpenDataRenderer {
+
+    /**
+     * The number of rows of a table or an array rendered per page
+     */
+    static final int PAGE_SIZE = Integer.getInteger("jmxconsole.opendata.page.size", 100);
+
+    private OpenDataRenderer() {
+
+    }
+
+    /**
+     * @return whether a value is rendered as open data rather than as text
+     */
+    static boolean isOpenData(Object value) {
+
+        return value instanceof CompositeData || value instanceof TabularData
+                || value instanceof CompositeData[] || value instanceof TabularData[];
+    }
+
+    /**
+     * Find the item of a value at a path.
+     *
+     * @param value the attribute value
+     * @param path  item names of composites, row keys of tables and positions of arrays
+     * @return the item
+     * @throws IllegalArgumentException when the path does not lead to an item
+     */
+    static Object resolve(Object value, List<String> path) {
+
+        for (String segment : path) {
+            if (value instanceof CompositeData) {
+                CompositeData composite = (CompositeData) value;
+                if (!composite.containsKey(segment)) {
+                    throw new IllegalArgumentException("No item " + segment);
+                }
+                value = composite.get(segment);
+            } else if (value instanceof TabularData) {
+                TabularData table = (TabularData) value;
+                value = table.get(decodeKey(table.getTabularType(), segment));
+                if (value == null) {
+                    throw new IllegalArgumentException("No row " + segment);
+                }
+            } else if (value != null && value.getClass().isArray()) {
+                int position = position(segment);
+                if (position >= Array.getLength(value)) {
+                    throw new IllegalArgumentException("No element " + segment);
+                }
+                value = Array.get(value, position);
+            } else {
+                throw new IllegalArgumentException("No item " + segment + " in a simple value");
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Write an open data value as a block that replaces itself on paging.
+     *
+     * @param out      the writer
+     * @param name     the name of the mbean
+     * @param attrName the name of the attribute
+     * @param path     the path of the value from the attribute value
+     * @param value    the value
+     * @param page     the page of the rows of a table or an array
+     */
+    static void write(Writer out, String name, String attrName, List<String> path, Object value, int page) throws IOException {
+
+        out.write("<div class='opendata'>");
+        if (value instanceof CompositeData) {
+            writeComposite(out, name, attrName, path, (CompositeData) value);
+        } else if (value instanceof TabularData) {
+            TabularData table = (TabularData) value;
+            writeTable(out, name, attrName, path, table, page);
+        } else if (value instanceof Object[]) {
+            writeArray(out, name, attrName, path, (Object[]) value, page);
+        } else if (value != null && value.getClass().isArray()) {
+            out.write("<pre>");
+            ArrayRenderer.write(out, value, AttributeValueRenderer.SEP);
+            out.write("</pre>");
+        } else {
+            writeSimple(out, value);
+        }
+        out.write("</div>");
+    }
+
+    private static void writeComposite(Writer out, String name, String attrName, List<String> path, CompositeData composite) throws IOException {
+
+        out.write("<table class='opendata'>");
+        for (String key : composite.getCompositeType().keySet()) {
+            out.write("<tr><td class='param'>");
+            ArrayRenderer.escape(out, key);
+            out.write("</td><td>");
+            writeItem(out, name, attrName, path, key, composite.get(key));
+            out.write("</td></tr>");
+        }
+        out.write("</table>");
+    }
+
+    /**
+     * Write a page of the rows of a table, iterating its rows once up to the end of the page
+     */
+    private static void writeTable(Writer out, String name, String attrName, List<String> path, TabularData table, int page) throws IOException {
+
+        TabularType type = table.getTabularType();
+        Set<String> columns = type.getRowType().keySet();
+        int size = table.size();
+        int first = first(page, size);
+        out.write("<table class='opendata'><tr><th>#</th>");
+        for (String column : columns) {
+            out.write("<th>");
+            ArrayRenderer.escape(out, column);
+            out.write("</th>");
+        }
+        out.write("</tr>");
+        Iterator<?> it = table.values().iterator();
+        for (int i = 0; i < first && it.hasNext(); i++) {
+            it.next();
+        }
+        int position = first;
+        for (; position < first + PAGE_SIZE && it.hasNext(); position++) {
+            CompositeData row = (CompositeData) it.next();
+            String segment = encodeKey(type, row);
+            out.write("<tr><td>" + position + "</td>");
+            for (String column : columns) {
+                out.write("<td>");
+                if (segment == null) {
+                    writeItem(out, name, attrName, null, column, row.get(column));
+                } else {
+                    path.add(segment);
+                    try {
+                        writeItem(out, name, attrName, path, column, row.get(column));
+                    } finally {
+                        path.remove(path.size() - 1);
+                    }
+                }
+                out.write("</td>");
+            }
+            out.write("</tr>");
+        }
+        out.write("</table>");
+        writePager(out, name, attrName, path, first, position, size);
+    }
+
+    private static void writeArray(Writer out, String name, String attrName, List<String> path, Object[] array, int page) throws IOException {
+
+        int size = array.length;
+        int first = first(page, size);
+        int end = Math.min(first + PAGE_SIZE, size);
+        out.write("<table class='opendata'>");
+        for (int position = first; position < end; position++) {
+            out.write("<tr><td>" + position + "</td><td>");
+            writeItem(out, name, attrName, path, String.valueOf(position), array[position]);
+            out.write("</td></tr>");
+        }
+        out.write("</table>");
+        writePager(out, name, attrName, path, first, end, size);
+    }
+
+    /**
+     * Write an item of a composite, table row or array: a link loading it when it is open
+     * data or an array itself, its text otherwise. Without a path the item cannot be
+     * addressed, and only its summary is written.
+     */
+    private static void writeItem(Writer out, String name, String attrName, List<String> path, String segment, Object item) throws IOException {
+
+        String summary = null;
+        if (item instanceof CompositeData) {
+            summary = ((CompositeData) item).getCompositeType().getTypeName();
+        } else if (item instanceof TabularData) {
+            summary = ((TabularData) item).size() + " rows";
+        } else if (item != null && item.getClass().isArray()) {
+            summary = Array.getLength(item) + " elements";
+        }
+        if (summary == null) {
+            writeSimple(out, item);
+            return;
+        }
+        if (path == null) {
+            ArrayRenderer.escape(out, summary);
+            return;
+        }
+        path.add(segment);
+        try {
+            out.write("<div class='opendata'>");
+            writeLink(out, name, attrName, path, 0);
+            ArrayRenderer.escape(out, summary);
+            out.write("</a></div>");
+        } finally {
+            path.remove(path.size() - 1);
+        }
+    }
+
+    private static void writePager(Writer out, String name, String attrName, List<String> path, int first, int end, int size) throws IOException {
+
+        if (size <= PAGE_SIZE) {
+            return;
+        }
+        int page = first / PAGE_SIZE;
+        out.write("<p class='pager'>");
+        if (page > 0) {
+            writeLink(out, name, attrName, path, page - 1);
+            out.write("previous</a> ");
+        }
+        out.write("rows " + (size == 0 ? 0 : first + 1) + " to " + end + " of " + size);
+        if (end < size) {
+            out.write(' ');
+            writeLink(out, name, attrName, path, page + 1);
+            out.write("next</a>");
+        }
+        out.write("</p>");
+    }
+
+    /**
+     * Write the opening tag of a link loading a page of the item at a path
+     */
+    private static void writeLink(Writer out, String name, String attrName, List<String> path, int page) throws IOException {
+
+        out.write("<a href='HtmlAdaptor?action=openData&name=" + URLEncoder.encode(name, "UTF-8") + "&attr=" + URLEncoder.encode(attrName, "UTF-8"));
+        for (String segment : path) {
+            out.write("&path=" + URLEncoder.encode(segment, "UTF-8"));
+        }
+        out.write("&page=" + page + "' onclick='return loadOpenData(this)'>");
+    }
+
+    private static void writeSimple(Writer out, Object value) throws IOException {
+
+        String text = String.valueOf(value);
+        ArrayRenderer.escape(out, text, 0, Math.min(text.length(), ValueSlicer.MAX_CHARS));
+        if (text.length() > ValueSlicer.MAX_CHARS) {
+            out.write("...");
+        }
+    }
+
+    /**
+     * @return the position of the first row of a page, the last page when past it
+     */
+    private static int first(int page, int size) {
+
+        int last = Math.max(0, (size - 1) / PAGE_SIZE);
+        return Math.min(Math.max(0, page), last) * PAGE_SIZE;
+    }
+
+    private static int position(String segment) {
+
+        try {
+            int position = Integer.parseInt(segment);
+            if (position < 0) {
+                throw new IllegalArgumentException("No row " + segment);
+            }
+            return position;
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("No row " + segment);
+        }
+    }
+
+    /**
+     * @return the key of a row as a path segment, null when an index value is null or not of
+     * a simple type
+     */
+    private static String encodeKey(TabularType type, CompositeData row) {
+
+        StringBuilder key = new StringBuilder();
+        for (String indexName : type.getIndexNames()) {
+            Object value = row.get(indexName);
+            if (value == null || !(type.getRowType().getType(indexName) instanceof SimpleType)) {
+                return null;
+            }
+            String text = value instanceof Date ? String.valueOf(((Date) value).getTime()) : value.toString();
+            if (key.length() > 0) {
+                key.append(',');
+            }
+            for (int i = 0; i < text.length(); i++) {
+                char c = text.charAt(i);
+                if (c == ',' || c == '\\') {
+                    key.append('\\');
+                }
+                key.append(c);
+            }
+        }
+        return key.toString();
+    }
+
+    /**
+     * @return the index values of a row key
+     * @throws IllegalArgumentException when the key does not fit the index of the table
+     */
+    private static Object[] decodeKey(TabularType type, String segment) {
+
+        List<String> texts = new ArrayList<>();
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < segment.length(); i++) {
+            char c = segment.charAt(i);
+            if (c == '\\' && i + 1 < segment.length()) {
+                text.append(segment.charAt(++i));
+            } else if (c == ',') {
+                texts.add(text.toString());
+                text.setLength(0);
+            } else {
+                text.append(c);
+            }
+        }
+        texts.add(text.toString());
+        List<String> indexNames = type.getIndexNames();
+        if (texts.size() != indexNames.size()) {
+            throw new IllegalArgumentException("No row " + segment);
+        }
+        Object[] key = new Object[texts.size()];
+        for (int k = 0; k < key.length; k++) {
+            OpenType<?> itemType = type.getRowType().getType(indexNames.get(k));
+            if (!(itemType instanceof SimpleType)) {
+                throw new IllegalArgumentException("No row " + segment);
+            }
+            key[k] = parse(itemType.getClassName(), texts.get(k));
+        }
+        return key;
+    }
+
+    /**
+     * Parse the text of a simple open type value, as written by encodeKey
+     */
+    private static Object parse(String className, String text) {
+
+        switch (className) {
+        case "java.lang.String":
+            return text;
+        case "java.lang.Character":
+            if (text.length() != 1) {
+                throw new IllegalArgumentException("Not a character: " + text);
+            }
+            return text.charAt(0);
+        case "java.lang.Boolean":
+            return Boolean.valueOf(text);
+        case "java.lang.Byte":
+            return Byte.valueOf(text);
+        case "java.lang.Short":
+            return Short.valueOf(text);
+        case "java.lang.Integer":
+            return Integer.valueOf(text);
+        case "java.lang.Long":
+            return Long.valueOf(text);
+        case "java.lang.Float":
+            return Float.valueOf(text);
+        case "java.lang.Double":
+            return Double.valueOf(text);
+        case "java.math.BigInteger":
+            return new BigInteger(text);
+        case "java.math.BigDecimal":
+            return new BigDecimal(text);
+        case "java.util.Date":
+            return new Date(Long.parseLong(text));
+        case "javax.management.ObjectName":
+            try {
+                return new ObjectName(text);
+            } catch (MalformedObjectNameException e) {
+                throw new IllegalArgumentException(e.getMessage(), e);
+            }
+        default:
+            throw new IllegalArgumentException("Not an index type: " + className);
+        }
+    }
+
+}
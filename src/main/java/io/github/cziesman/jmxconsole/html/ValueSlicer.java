@@ -0,0 +1,233 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.html;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.Map;
+
+import io.github.cziesman.jmxconsole.control.AttrResultInfo;
+
+/**
+ * Writes a slice of the text of an attribute value, at most MAX_CHARS characters from a
+ * given offset, so a huge value is never copied or escaped as a whole. Strings are sliced
+ * in place and collections and maps are written element by element, in the format of
+ * their toString(); any other value is written from its text.
+ */
+final class ValueSlicer {
+
+    /**
+     * The maximum number of characters of a value rendered at once
+     */
+    static final int MAX_CHARS = Integer.getInteger("jmxconsole.value.max.chars", 65536);
+
+    private ValueSlicer() {
+
+    }
+
+    /**
+     * @return the length of the text of a value when it is known without converting the
+     * value, otherwise -1
+     */
+    static long length(AttrResultInfo attrResult) {
+
+        if (attrResult.throwable == null && attrResult.result instanceof CharSequence) {
+            return ((CharSequence) attrResult.result).length();
+        }
+        return -1;
+    }
+
+    /**
+     * Write a slice of the text of a value.
+     *
+     * @param out        the writer
+     * @param attrResult the value read from the attribute
+     * @param offset     the offset of the first character written
+     * @param escape     whether to escape the html metacharacters of the text
+     * @return the offset of the next slice, or -1 when the text has been written to its end
+     */
+    static long write(Writer out, AttrResultInfo attrResult, long offset, boolean escape) throws IOException {
+
+        Slice slice = new Slice(out, offset, MAX_CHARS, escape);
+        try {
+            Object value = attrResult.result;
+            if (attrResult.throwable != null || value == null) {
+                slice.write(String.valueOf(attrResult.getAsText()));
+            } else if (value instanceof CharSequence) {
+                slice.append((CharSequence) value);
+            } else if (attrResult.codec == null && value instanceof Collection) {
+                writeCollection(slice, (Collection<?>) value);
+            } else if (attrResult.codec == null && value instanceof Map) {
+                writeMap(slice, (Map<?, ?>) value);
+            } else {
+                slice.write(String.valueOf(attrResult.getAsText()));
+            }
+        } catch (Slice.Full full) {
+            return offset + MAX_CHARS;
+        }
+        return -1;
+    }
+
+    private static void writeCollection(Writer out, Collection<?> collection) throws IOException {
+
+        out.write('[');
+        Iterator<?> it = collection.iterator();
+        while (it.hasNext()) {
+            Object element = it.next();
+            out.write(element == collection ? "(this Collection)" : String.valueOf(element));
+            if (it.hasNext()) {
+                out.write(", ");
+            }
+        }
+        out.write(']');
+    }
+
+    private static void writeMap(Writer out, Map<?, ?> map) throws IOException {
+
+        out.write('{');
+        Iterator<? extends Map.Entry<?, ?>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            Map.Entry<?, ?> entry = it.next();
+            out.write(entry.getKey() == map ? "(this Map)" : String.valueOf(entry.getKey()));
+            out.write('=');
+            out.write(entry.getValue() == map ? "(this Map)" : String.valueOf(entry.getValue()));
+            if (it.hasNext()) {
+                out.write(", ");
+            }
+        }
+        out.write('}');
+    }
+
+    /**
+     * Drops the characters before the offset of a slice, passes on the characters of the
+     * slice and stops the writing, by throwing Full, at the first character past it.
+     */
+    private static final class Slice extends Writer {
+
+        /**
+         * Thrown to stop writing once the slice is complete; shared as it carries no state
+         */
+        private static final class Full extends IOException {
+
+            private static final long serialVersionUID = 1L;
+
+            private static final Full INSTANCE = new Full();
+
+            private Full() {
+
+                super("slice complete", null);
+            }
+
+            public synchronized Throwable fillInStackTrace() {
+
+                return this;
+            }
+        }
+
+        private final Writer out;
+
+        private final boolean escape;
+
+        private long skip;
+
+        private int remaining;
+
+        Slice(Writer out, long offset, int length, boolean escape) {
+
+            this.out = out;
+            this.skip = offset;
+            this.remaining = length;
+            this.escape = escape;
+        }
+
+        public void write(int c) throws IOException {
+
+            if (skip > 0) {
+                skip--;
+                return;
+            }
+            if (remaining == 0) {
+                throw Full.INSTANCE;
+            }
+            remaining--;
+            if (escape) {
+                ArrayRenderer.escape(out, (char) c);
+            } else {
+                out.write(c);
+            }
+        }
+
+        public void write(char[] cbuf, int off, int len) throws IOException {
+
+            for (int i = off; i < off + len; i++) {
+                write(cbuf[i]);
+            }
+        }
+
+        public void write(String str, int off, int len) throws IOException {
+
+            int end = off + len;
+            if (skip > 0) {
+                int skipped = (int) Math.min(skip, len);
+                skip -= skipped;
+                off += skipped;
+            }
+            if (off == end) {
+                return;
+            }
+            int count = Math.min(remaining, end - off);
+            if (escape) {
+                ArrayRenderer.escape(out, str, off, off + count);
+            } else {
+                out.write(str, off, count);
+            }
+            remaining -= count;
+            if (off + count < end) {
+                throw Full.INSTANCE;
+            }
+        }
+
+        public Writer append(CharSequence csq) throws IOException {
+
+            if (csq instanceof String) {
+                write((String) csq, 0, csq.length());
+            } else {
+                for (int i = 0; i < csq.length(); i++) {
+                    write(csq.charAt(i));
+                }
+            }
+            return this;
+        }
+
+        public void flush() throws IOException {
+
+            out.flush();
+        }
+
+        public void close() {
+
+        }
+    }
+
+}
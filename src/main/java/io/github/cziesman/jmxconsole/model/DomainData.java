@@ -23,19 +23,30 @@ package io.github.cziesman.jmxconsole.model;
 
 import java.util.Arrays;
 import java.util.Objects;
-import java.util.TreeSet;
+
+import javax.management.ObjectName;
 
 /**
  * The MBeanData for a given JMX domain name
  *
+ * <p>The MBeanData is kept in a compact array that is sorted, and stripped of duplicates,
+ * the first time it is read after additions. Data added in order, as the registry index
+ * supplies it, is never re-sorted.
+ *
  * @author Scott.Stark@jboss.org
  * @author Dimitris.Andreadis@jboss.org
  */
 public class DomainData {
 
+    private static final MBeanData[] EMPTY = new MBeanData[0];
+
     String domainName;
 
-    TreeSet<MBeanData> domainData = new TreeSet<>();
+    MBeanData[] domainData = EMPTY;
+
+    int size;
+
+    boolean sorted = true;
 
     /**
      * Creates a new instance of DomainData
@@ -48,7 +59,9 @@ public class DomainData {
     public DomainData(String domainName, MBeanData[] data) {
 
         this.domainName = domainName;
-        domainData.addAll(Arrays.asList(data));
+        this.domainData = data.clone();
+        this.size = data.length;
+        this.sorted = false;
     }
 
     @Override
@@ -61,40 +74,97 @@ public class DomainData {
             return false;
         }
         DomainData that = (DomainData) o;
-        return Objects.equals(domainName, that.domainName) && Objects.equals(domainData, that.domainData);
+        if (!Objects.equals(domainName, that.domainName)) {
+            return false;
+        }
+        MBeanData[] data = getData();
+        MBeanData[] thatData = that.getData();
+        if (data.length != thatData.length) {
+            return false;
+        }
+        for (int d = 0; d < data.length; d++) {
+            if (data[d].compareTo(thatData[d]) != 0) {
+                return false;
+            }
+        }
+        return true;
     }
 
     @Override
     public int hashCode() {
 
-        return Objects.hash(domainName, domainData);
+        return 31 * Objects.hashCode(domainName) + Arrays.hashCode(getData());
     }
-//    public int hashCode() {
-//
-//        return domainName.hashCode();
-//    }
-
-//    public boolean equals(Object obj) {
-//
-//        DomainData data = (DomainData) obj;
-//        return domainName.equals(data.domainName);
-//    }
 
     public String getDomainName() {
 
         return domainName;
     }
 
+    /**
+     * @return the sorted MBeanData of the domain; the array is shared and must not be modified
+     */
     public MBeanData[] getData() {
 
-        MBeanData[] data = new MBeanData[domainData.size()];
-        domainData.toArray(data);
-        return data;
+        if (!sorted || size != domainData.length) {
+            compact();
+        }
+        return domainData;
     }
 
     public void addData(MBeanData data) {
 
-        domainData.add(data);
+        if (size == domainData.length) {
+            domainData = Arrays.copyOf(domainData, Math.max(8, size * 2));
+        }
+        if (sorted && size > 0 && domainData[size - 1].compareTo(data) >= 0) {
+            sorted = false;
+        }
+        domainData[size++] = data;
+    }
+
+    /**
+     * @return the number of MBeans in the domain
+     */
+    public int size() {
+
+        return getData().length;
+    }
+
+    /**
+     * Find an MBean by binary search.
+     *
+     * @param name the ObjectName of the MBean
+     * @return the MBeanData or null when the MBean is not part of this domain
+     */
+    public MBeanData find(ObjectName name) {
+
+        MBeanData[] data = getData();
+        int index = Arrays.binarySearch(data, new MBeanData(name));
+        return index >= 0 ? data[index] : null;
+    }
+
+    /**
+     * Sort the added MBeanData, keeping the first of equal entries, and trim the array.
+     */
+    private void compact() {
+
+        if (!sorted) {
+            // a stable sort keeps the first added of equal entries in front
+            Arrays.sort(domainData, 0, size);
+            int unique = 0;
+            for (int d = 0; d < size; d++) {
+                if (unique == 0 || domainData[unique - 1].compareTo(domainData[d]) != 0) {
+                    domainData[unique++] = domainData[d];
+                }
+            }
+            Arrays.fill(domainData, unique, size, null);
+            size = unique;
+            sorted = true;
+        }
+        if (size != domainData.length) {
+            domainData = Arrays.copyOf(domainData, size);
+        }
     }
 
 }
@@ -0,0 +1,100 @@
+/*
+ * JBoss, Home of Professional Open Source.
+ * Copyright 2011, Red Hat, Inc., and individual contributors
+ * as indicated by the @author tags. See the copyright.txt file in the
+ * distribution for a full listing of individual contributors.
+ *
+ * This is free software; you can redistribute it and/or modify it
+ * under the terms of the GNU Lesser General Public License as
+ * published by the Free Software Foundation; either version 2.1 of
+ * the License, or (at your option) any later version.
+ *
+ * This software is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details.
+ *
+ * You should have received a copy of the GNU Lesser General Public
+ * License along with this software; if not, write to the Free
+ * Software Foundation, Inc., 51 Franklin St, Fifth Floor, Boston, MA
+ * 02110-1301 USA, or see the FSF site: http://www.fsf.org.
+ */
+package io.github.cziesman.jmxconsole.model;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * One page of a domain listing plus the cursor that continues it.
+ *
+ * <p>A cursor is an opaque, URL safe token holding the domain and canonical key
+ * property list of the last MBean on the page.
+ */
+public class DomainDataPage {
+
+    /**
+     * Separates the domain from the key properties inside a cursor
+     */
+    private static final char SEPARATOR = '\0';
+
+    private final List<DomainData> domains;
+
+    private final String nextCursor;
+
+    public DomainDataPage(List<DomainData> domains, String nextCursor) {
+
+        this.domains = domains;
+        this.nextCursor = nextCursor;
+    }
+
+    /**
+     * Build the cursor that positions a listing after the given MBean.
+     *
+     * @param domain        the domain name of the MBean
+     * @param keyProperties the canonical key property list of the MBean
+     * @return the encoded cursor
+     */
+    public static String encodeCursor(String domain, String keyProperties) {
+
+        String cursor = domain + SEPARATOR + keyProperties;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(cursor.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Split a cursor into its domain and key property list.
+     *
+     * @param cursor the encoded cursor
+     * @return a two element array of domain and key property list
+     * @throws IllegalArgumentException when the cursor is malformed
+     */
+    public static String[] decodeCursor(String cursor) {
+
+        String decoded = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        int separator = decoded.indexOf(SEPARATOR);
+        if (separator == -1) {
+            throw new IllegalArgumentException("Malformed cursor: " + cursor);
+        }
+        return new String[]{decoded.substring(0, separator), decoded.substring(separator + 1)};
+    }
+
+    public Iterator<DomainData> iterator() {
+
+        return domains.iterator();
+    }
+
+    public List<DomainData> getDomains() {
+
+        return domains;
+    }
+
+    /**
+     * @return the cursor of the next page, or null when this is the last page
+     */
+    public String getNextCursor() {
+
+        return nextCursor;
+    }
+
+}
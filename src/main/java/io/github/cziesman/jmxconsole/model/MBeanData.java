@@ -21,31 +21,58 @@
  */
 package io.github.cziesman.jmxconsole.model;
 
+import javax.management.JMException;
 import javax.management.MBeanInfo;
 import javax.management.ObjectName;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import io.github.cziesman.jmxconsole.control.Server;
+
 /**
- * An MBean ObjectName and MBeanInfo pair that is ordered by ObjectName.
+ * An MBean ObjectName and MBeanInfo pair that is ordered by ObjectName. When created
+ * from an ObjectName only, the MBeanInfo is looked up on demand.
  *
  * @author Scott.Stark@jboss.org
  * @author Dimitris.Andreadis@jboss.org
  */
 public class MBeanData implements Comparable<MBeanData> {
 
+    private static final Logger LOG = LoggerFactory.getLogger(MBeanData.class);
+
+    /**
+     * Separates the domain from the key properties in the sort key. It sorts before any
+     * character a domain may contain, so comparing sort keys orders by domain first.
+     */
+    private static final char SORT_KEY_SEPARATOR = '\0';
+
     private ObjectName objectName;
 
     private MBeanInfo metaData;
 
+    /**
+     * The domain and canonical key property list, computed once per ObjectName
+     */
+    private String sortKey;
+
     public MBeanData() {
 
     }
 
+    /**
+     * Creates a new instance whose MBeanInfo is only fetched when asked for
+     */
+    public MBeanData(ObjectName objectName) {
+
+        setObjectName(objectName);
+    }
+
     /**
      * Creates a new instance of MBeanInfo
      */
     public MBeanData(ObjectName objectName, MBeanInfo metaData) {
 
-        this.objectName = objectName;
+        setObjectName(objectName);
         this.metaData = metaData;
     }
 
@@ -67,16 +94,27 @@ public class MBeanData implements Comparable<MBeanData> {
     public void setObjectName(ObjectName objectName) {
 
         this.objectName = objectName;
+        this.sortKey = objectName == null ? null
+                : objectName.getDomain() + SORT_KEY_SEPARATOR + objectName.getCanonicalKeyPropertyListString();
     }
 
     /**
-     * Getter for property metaData.
+     * Getter for property metaData. Without an explicit MBeanInfo it is read through the
+     * MBeanInfo cache, and not kept here, so listing entries never hold on to it.
      *
-     * @return Value of property metaData.
+     * @return Value of property metaData, or null when it cannot be obtained.
      */
     public MBeanInfo getMetaData() {
 
-        return metaData;
+        if (metaData != null || objectName == null) {
+            return metaData;
+        }
+        try {
+            return Server.getMBeanInfo(objectName);
+        } catch (JMException e) {
+            LOG.debug("Failed to get MBeanInfo for " + objectName, e);
+            return null;
+        }
     }
 
     /**
@@ -110,7 +148,8 @@ public class MBeanData implements Comparable<MBeanData> {
      */
     public String getClassName() {
 
-        return metaData.getClassName();
+        MBeanInfo info = getMetaData();
+        return info != null ? info.getClassName() : null;
     }
 
     /**
@@ -121,15 +160,7 @@ public class MBeanData implements Comparable<MBeanData> {
      */
     public int compareTo(MBeanData md) {
 
-        String d1 = objectName.getDomain();
-        String d2 = md.objectName.getDomain();
-        int compare = d1.compareTo(d2);
-        if (compare == 0) {
-            String p1 = objectName.getCanonicalKeyPropertyListString();
-            String p2 = md.objectName.getCanonicalKeyPropertyListString();
-            compare = p1.compareTo(p2);
-        }
-        return compare;
+        return sortKey.compareTo(md.sortKey);
     }
 
     public boolean equals(MBeanData o) {
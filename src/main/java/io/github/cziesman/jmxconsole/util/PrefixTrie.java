@@ -0,0 +1,158 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc., and individual contributors as indicated
+ * by the @authors tag.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cziesman.jmxconsole.util;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * A reference counted prefix trie of strings. Adding a string several times requires
+ * removing it as many times before it disappears. Completions are returned in
+ * lexicographical order.
+ *
+ * <p>The trie is thread safe; all operations lock the trie.
+ */
+public class PrefixTrie {
+
+    private final Node root = new Node();
+
+    private int size;
+
+    /**
+     * Add a string, or increase its reference count.
+     *
+     * @param s the string
+     */
+    public synchronized void add(String s) {
+
+        Node node = root;
+        for (int i = 0; i < s.length(); i++) {
+            node = node.child(s.charAt(i), true);
+        }
+        if (node.count++ == 0) {
+            size++;
+        }
+    }
+
+    /**
+     * Decrease the reference count of a string, removing it when the count drops to zero.
+     *
+     * @param s the string
+     */
+    public synchronized void remove(String s) {
+
+        remove(root, s, 0);
+    }
+
+    /**
+     * @return the number of distinct strings in the trie
+     */
+    public synchronized int size() {
+
+        return size;
+    }
+
+    /**
+     * Get the first strings, in lexicographical order, that start with a prefix.
+     *
+     * @param prefix the prefix
+     * @param max    the maximum number of strings returned
+     * @return the completions
+     */
+    public synchronized List<String> complete(String prefix, int max) {
+
+        List<String> completions = new ArrayList<>();
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.child(prefix.charAt(i), false);
+        }
+        if (node != null && max > 0) {
+            collect(node, new StringBuilder(prefix), completions, max);
+        }
+        return completions;
+    }
+
+    private boolean remove(Node node, String s, int depth) {
+
+        if (depth == s.length()) {
+            if (node.count == 0) {
+                return false;
+            }
+            if (--node.count == 0) {
+                size--;
+            }
+        } else {
+            Node child = node.child(s.charAt(depth), false);
+            if (child == null || !remove(child, s, depth + 1)) {
+                return false;
+            }
+            if (child.count == 0 && (child.children == null || child.children.isEmpty())) {
+                node.children.remove(s.charAt(depth));
+            }
+        }
+        return true;
+    }
+
+    private static void collect(Node node, StringBuilder prefix, List<String> completions, int max) {
+
+        if (completions.size() == max) {
+            return;
+        }
+        if (node.count > 0) {
+            completions.add(prefix.toString());
+        }
+        if (node.children == null) {
+            return;
+        }
+        for (Map.Entry<Character, Node> child : node.children.entrySet()) {
+            if (completions.size() == max) {
+                return;
+            }
+            prefix.append(child.getKey().charValue());
+            collect(child.getValue(), prefix, completions, max);
+            prefix.setLength(prefix.length() - 1);
+        }
+    }
+
+    private static class Node {
+
+        TreeMap<Character, Node> children;
+
+        int count;
+
+        Node child(char c, boolean create) {
+
+            if (children == null) {
+                if (!create) {
+                    return null;
+                }
+                children = new TreeMap<>();
+            }
+            Node child = children.get(c);
+            if (child == null && create) {
+                child = new Node();
+                children.put(c, child);
+            }
+            return child;
+        }
+
+    }
+
+}
@@ -0,0 +1,104 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc., and individual contributors as indicated
+ * by the @authors tag.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cziesman.jmxconsole.util;
+
+import java.lang.ref.WeakReference;
+import java.util.Collections;
+import java.util.Map;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Memoizes {@link Classes#loadClass(String, ClassLoader)} per ClassLoader, including the
+ * names that could not be resolved.
+ *
+ * <p>The ClassLoaders are weakly referenced, and so are the resolved classes, since a class
+ * keeps its own ClassLoader reachable. A name that failed to resolve stays unresolved
+ * for the life of its ClassLoader.
+ */
+public final class TypeCache {
+
+    /**
+     * Marks a name that could not be resolved
+     */
+    private static final WeakReference<Class<?>> NOT_FOUND = new WeakReference<>(null);
+
+    private static final Map<ClassLoader, ConcurrentMap<String, WeakReference<Class<?>>>> TYPES = Collections.synchronizedMap(new WeakHashMap<>());
+
+    private TypeCache() {
+
+    }
+
+    /**
+     * Resolve a type name with the thread context ClassLoader.
+     *
+     * @param name a class, primitive or array name as returned by Class.getName()
+     * @return the class
+     * @throws ClassNotFoundException when the name does not resolve
+     * @see Classes#loadClass(String)
+     */
+    public static Class<?> loadClass(String name) throws ClassNotFoundException {
+
+        Class<?> type = findClass(name, Thread.currentThread().getContextClassLoader());
+        if (type == null) {
+            throw new ClassNotFoundException(name);
+        }
+        return type;
+    }
+
+    /**
+     * Resolve a type name with the thread context ClassLoader.
+     *
+     * @param name a class, primitive or array name as returned by Class.getName()
+     * @return the class, or null when the name does not resolve
+     */
+    public static Class<?> findClass(String name) {
+
+        return findClass(name, Thread.currentThread().getContextClassLoader());
+    }
+
+    /**
+     * Resolve a type name with a ClassLoader.
+     *
+     * @param name   a class, primitive or array name as returned by Class.getName()
+     * @param loader the ClassLoader, or null for the ClassLoader of this class
+     * @return the class, or null when the name does not resolve
+     */
+    public static Class<?> findClass(String name, ClassLoader loader) {
+
+        if (loader == null) {
+            loader = TypeCache.class.getClassLoader();
+        }
+        ConcurrentMap<String, WeakReference<Class<?>>> types = TYPES.computeIfAbsent(loader, l -> new ConcurrentHashMap<>());
+        WeakReference<Class<?>> ref = types.get(name);
+        Class<?> type = ref == null ? null : ref.get();
+        if (type != null || ref == NOT_FOUND) {
+            return type;
+        }
+        try {
+            type = Classes.loadClass(name, loader);
+            ref = new WeakReference<>(type);
+        } catch (ClassNotFoundException | LinkageError e) {
+            ref = NOT_FOUND;
+        }
+        types.put(name, ref);
+        return type;
+    }
+
+}
@@ -30,15 +30,7 @@ public class CharacterEditor extends PropertyEditorSupport {
 
     public void setAsText(final String text) {
 
-        if (PropertyEditors.isNull(text)) {
-            setValue(null);
-            return;
-        }
-        if (text.length() != 1) {
-            throw new IllegalArgumentException("Too many (" + text.length() + ") characters: '" + text + "'");
-        }
-        Object newValue = text.charAt(0);
-        setValue(newValue);
+        setValue(TextCodecs.CHARACTER.decode(text));
     }
 
 }
\ No newline at end of file
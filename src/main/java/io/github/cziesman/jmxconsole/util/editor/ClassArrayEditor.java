@@ -18,8 +18,6 @@
 package io.github.cziesman.jmxconsole.util.editor;
 
 import java.beans.PropertyEditorSupport;
-import java.util.ArrayList;
-import java.util.StringTokenizer;
 
 /**
  * A property editor for Class[].
@@ -34,16 +32,7 @@ public class ClassArrayEditor extends PropertyEditorSupport {
      */
     public String getAsText() {
 
-        Class<?>[] theValue = (Class[]) getValue();
-        StringBuilder text = new StringBuilder();
-        int length = theValue == null ? 0 : theValue.length;
-        for (int n = 0; n < length; n++) {
-            text.append(theValue[n].getName());
-            text.append(',');
-        }
-        // Remove the trailing ','
-        text.setLength(text.length() - 1);
-        return text.toString();
+        return TextCodecs.CLASS_ARRAY.encode(getValue());
     }
 
     /**
@@ -53,22 +42,7 @@ public class ClassArrayEditor extends PropertyEditorSupport {
      */
     public void setAsText(final String text) throws IllegalArgumentException {
 
-        ClassLoader loader = Thread.currentThread().getContextClassLoader();
-        StringTokenizer tokenizer = new StringTokenizer(text, ", \t\r\n");
-        ArrayList<Class<?>> classes = new ArrayList<Class<?>>();
-        while (tokenizer.hasMoreTokens()) {
-            String name = tokenizer.nextToken();
-            try {
-                Class<?> c = loader.loadClass(name);
-                classes.add(c);
-            } catch (ClassNotFoundException e) {
-                throw new IllegalArgumentException("Failed to find class: " + name);
-            }
-        }
-
-        Class<?>[] theValue = new Class[classes.size()];
-        classes.toArray(theValue);
-        setValue(theValue);
+        setValue(TextCodecs.CLASS_ARRAY.decode(text));
     }
 
 }
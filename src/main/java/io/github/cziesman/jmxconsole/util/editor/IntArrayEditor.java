@@ -18,7 +18,6 @@
 package io.github.cziesman.jmxconsole.util.editor;
 
 import java.beans.PropertyEditorSupport;
-import java.util.StringTokenizer;
 
 /**
  * A property editor for int[].
@@ -32,16 +31,7 @@ public class IntArrayEditor extends PropertyEditorSupport {
      */
     public String getAsText() {
 
-        int[] theValue = (int[]) getValue();
-        StringBuilder text = new StringBuilder();
-        int length = theValue == null ? 0 : theValue.length;
-        for (int n = 0; n < length; n++) {
-            if (n > 0) {
-                text.append(',');
-            }
-            text.append(theValue[n]);
-        }
-        return text.toString();
+        return TextCodecs.INT_ARRAY.encode(getValue());
     }
 
     /**
@@ -49,13 +39,7 @@ public class IntArrayEditor extends PropertyEditorSupport {
      */
     public void setAsText(final String text) {
 
-        StringTokenizer stok = new StringTokenizer(text, ",\r\n");
-        int[] theValue = new int[stok.countTokens()];
-        int i = 0;
-        while (stok.hasMoreTokens()) {
-            theValue[i++] = Integer.decode(stok.nextToken());
-        }
-        setValue(theValue);
+        setValue(TextCodecs.INT_ARRAY.decode(text));
     }
 
 }
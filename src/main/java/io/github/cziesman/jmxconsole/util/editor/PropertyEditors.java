@@ -32,7 +32,7 @@ import java.util.Properties;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import io.github.cziesman.jmxconsole.util.Classes;
+import io.github.cziesman.jmxconsole.util.TypeCache;
 
 /**
  * A collection of PropertyEditor utilities. Provides the same interface
@@ -153,13 +153,7 @@ public class PropertyEditors {
      */
     public static PropertyEditor findEditor(final String typeName)
             throws ClassNotFoundException {
-        // see if it is a primitive type first
-        Class<?> type = Classes.getPrimitiveTypeForName(typeName);
-        if (type == null) {
-            // nope try look up
-            ClassLoader loader = Thread.currentThread().getContextClassLoader();
-            type = loader.loadClass(typeName);
-        }
+        Class<?> type = TypeCache.loadClass(typeName);
 
         return PropertyEditorManager.findEditor(type);
     }
@@ -209,6 +203,7 @@ public class PropertyEditors {
     public static void registerEditor(final Class<?> type, final Class<?> editorType) {
 
         PropertyEditorManager.registerEditor(type, editorType);
+        TextCodecs.forget(type);
     }
 
     /**
@@ -227,16 +222,17 @@ public class PropertyEditors {
         Class<?> editorType = loader.loadClass(editorTypeName);
 
         PropertyEditorManager.registerEditor(type, editorType);
+        TextCodecs.forget(type);
     }
 
     /**
      * Convert a string value into the true value for typeName using the
-     * PropertyEditor associated with typeName.
+     * TextCodec associated with typeName.
      *
      * @param text     the string represention of the value. This is passed to
-     *                 the PropertyEditor.setAsText method.
+     *                 the TextCodec.decode method.
      * @param typeName the fully qualified class name of the true value type
-     * @return the PropertyEditor.getValue() result
+     * @return the TextCodec.decode result
      * @throws ClassNotFoundException thrown if the typeName class cannot
      *                                be found
      * @throws IntrospectionException thrown if a PropertyEditor for typeName
@@ -244,21 +240,15 @@ public class PropertyEditors {
      */
     public static Object convertValue(String text, String typeName)
             throws ClassNotFoundException, IntrospectionException {
-        // see if it is a primitive type first
-        Class<?> typeClass = Classes.getPrimitiveTypeForName(typeName);
-        if (typeClass == null) {
-            ClassLoader loader = Thread.currentThread().getContextClassLoader();
-            typeClass = loader.loadClass(typeName);
-        }
+        Class<?> typeClass = TypeCache.loadClass(typeName);
 
-        PropertyEditor editor = PropertyEditorManager.findEditor(typeClass);
-        if (editor == null) {
+        TextCodec codec = TextCodecs.find(typeClass);
+        if (codec == null) {
             throw new IntrospectionException
                     ("No property editor for type=" + typeClass);
         }
 
-        editor.setAsText(text);
-        return editor.getValue();
+        return codec.decode(text);
     }
 
     /**
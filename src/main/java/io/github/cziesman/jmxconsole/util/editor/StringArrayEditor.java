@@ -76,22 +76,7 @@ public class StringArrayEditor
      */
     public String getAsText() {
 
-        String[] theValue = (String[]) getValue();
-        StringBuilder text = new StringBuilder();
-        int length = theValue == null ? 0 : theValue.length;
-        for (int n = 0; n < length; n++) {
-            String s = theValue[n];
-            if (s.equals(",")) {
-                text.append('\\');
-            }
-            text.append(s);
-            text.append(',');
-        }
-        // Remove the trailing ','
-        if (text.length() > 0) {
-            text.setLength(text.length() - 1);
-        }
-        return text.toString();
+        return TextCodecs.STRING_ARRAY.encode(getValue());
     }
 
     /**
@@ -0,0 +1,41 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc., and individual contributors as indicated
+ * by the @authors tag.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cziesman.jmxconsole.util.editor;
+
+/**
+ * Converts values of one type to and from their text form. Unlike a PropertyEditor a
+ * codec holds no state, so one instance serves all threads.
+ *
+ * @see TextCodecs
+ */
+public interface TextCodec {
+
+    /**
+     * @param value the value, may be null
+     * @return the text form of the value, or null for a null value
+     */
+    String encode(Object value);
+
+    /**
+     * @param text the text form, may be null
+     * @return the value
+     * @throws IllegalArgumentException when the text is not a valid value of the type
+     */
+    Object decode(String text);
+
+}
@@ -0,0 +1,307 @@
+/*
+ * JBoss, Home of Professional Open Source
+ * Copyright 2015, Red Hat, Inc., and individual contributors as indicated
+ * by the @authors tag.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package io.github.cziesman.jmxconsole.util.editor;
+
+import java.beans.PropertyEditor;
+import java.beans.PropertyEditorManager;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.StringTokenizer;
+import java.util.function.Function;
+
+import javax.management.MalformedObjectNameException;
+import javax.management.ObjectName;
+
+import io.github.cziesman.jmxconsole.util.TypeCache;
+
+/**
+ * The registry of {@link TextCodec}s, looked up by type through a ClassValue.
+ *
+ * <p>Primitives, their wrappers, String, ObjectName and the array types of the editors in
+ * this package have built in codecs that produce the same text as their PropertyEditors.
+ * Like the JBoss editors, the wrapper codecs decode the text that
+ * {@link PropertyEditors#isNull(String)} accepts as null.
+ * Any other type is converted with a PropertyEditor from PropertyEditorManager, found
+ * again for each conversion since editors are not thread-safe.
+ */
+public final class TextCodecs {
+
+    /**
+     * String[] as a comma or eol separated list, with \, for a comma inside an element
+     */
+    static final TextCodec STRING_ARRAY = codec(StringArrayEditor::parseList, value -> {
+        String[] strings = (String[]) value;
+        StringBuilder text = new StringBuilder();
+        for (String s : strings) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            if (s.equals(",")) {
+                text.append('\\');
+            }
+            text.append(s);
+        }
+        return text.toString();
+    });
+
+    /**
+     * int[] as a comma or eol separated list
+     */
+    static final TextCodec INT_ARRAY = codec(text -> {
+        StringTokenizer tokenizer = new StringTokenizer(text, ",\r\n");
+        int[] ints = new int[tokenizer.countTokens()];
+        int i = 0;
+        while (tokenizer.hasMoreTokens()) {
+            ints[i++] = Integer.decode(tokenizer.nextToken());
+        }
+        return ints;
+    }, value -> {
+        int[] ints = (int[]) value;
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < ints.length; i++) {
+            if (i > 0) {
+                text.append(',');
+            }
+            text.append(ints[i]);
+        }
+        return text.toString();
+    });
+
+    /**
+     * Class[] as a comma or whitespace separated list of class names
+     */
+    static final TextCodec CLASS_ARRAY = codec(text -> {
+        StringTokenizer tokenizer = new StringTokenizer(text, ", \t\r\n");
+        Class<?>[] classes = new Class<?>[tokenizer.countTokens()];
+        int i = 0;
+        while (tokenizer.hasMoreTokens()) {
+            String name = tokenizer.nextToken();
+            Class<?> c = TypeCache.findClass(name);
+            if (c == null) {
+                throw new IllegalArgumentException("Failed to find class: " + name);
+            }
+            classes[i++] = c;
+        }
+        return classes;
+    }, value -> {
+        Class<?>[] classes = (Class<?>[]) value;
+        StringBuilder text = new StringBuilder();
+        for (Class<?> c : classes) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(c.getName());
+        }
+        return text.toString();
+    });
+
+    static final TextCodec CHARACTER = new TextCodec() {
+
+        public String encode(Object value) {
+
+            return value == null ? null : value.toString();
+        }
+
+        public Object decode(String text) {
+
+            if (PropertyEditors.isNull(text)) {
+                return null;
+            }
+            if (text.length() != 1) {
+                throw new IllegalArgumentException("Too many (" + text.length() + ") characters: '" + text + "'");
+            }
+            return text.charAt(0);
+        }
+    };
+
+    /**
+     * byte[] as the bytes of the text in the default charset
+     */
+    static final TextCodec BYTE_ARRAY = new TextCodec() {
+
+        public String encode(Object value) {
+
+            return value == null ? null : new String((byte[]) value);
+        }
+
+        public Object decode(String text) {
+
+            if (PropertyEditors.isNull(text, false, false)) {
+                return null;
+            }
+            return text.getBytes();
+        }
+    };
+
+    /**
+     * Booleans as True and False, the text of the default boolean editor
+     */
+    private static final TextCodec BOOLEAN = codec(text -> {
+        if ("true".equalsIgnoreCase(text)) {
+            return Boolean.TRUE;
+        }
+        if ("false".equalsIgnoreCase(text)) {
+            return Boolean.FALSE;
+        }
+        throw new IllegalArgumentException(text);
+    }, value -> ((Boolean) value) ? "True" : "False");
+
+    private static final TextCodec OBJECT_NAME = codec(text -> {
+        try {
+            return new ObjectName(text);
+        } catch (MalformedObjectNameException e) {
+            throw new IllegalArgumentException(e.getMessage(), e);
+        }
+    }, Object::toString);
+
+    /**
+     * Marks a type without a codec, since a ClassValue does not hold null
+     */
+    private static final TextCodec NONE = codec(text -> null, value -> null);
+
+    private static final Map<Class<?>, TextCodec> BUILT_IN = new HashMap<>();
+
+    private static final ClassValue<TextCodec> CODECS = new ClassValue<TextCodec>() {
+
+        protected TextCodec computeValue(Class<?> type) {
+
+            TextCodec codec = BUILT_IN.get(type);
+            if (codec != null) {
+                return codec;
+            }
+            return PropertyEditorManager.findEditor(type) != null ? new EditorCodec(type) : NONE;
+        }
+    };
+
+    static {
+        // the fallback relies on the editor search path and registrations
+        PropertyEditors.init();
+        BUILT_IN.put(String.class, codec(text -> text, Object::toString));
+        builtIn(BOOLEAN, Boolean.TYPE, Boolean.class);
+        builtIn(codec(Byte::decode, Object::toString), Byte.TYPE, Byte.class);
+        builtIn(codec(Short::decode, Object::toString), Short.TYPE, Short.class);
+        builtIn(codec(Integer::decode, Object::toString), Integer.TYPE, Integer.class);
+        builtIn(codec(Long::decode, Object::toString), Long.TYPE, Long.class);
+        builtIn(codec(Float::valueOf, Object::toString), Float.TYPE, Float.class);
+        builtIn(codec(Double::valueOf, Object::toString), Double.TYPE, Double.class);
+        builtIn(CHARACTER, Character.TYPE, Character.class);
+        BUILT_IN.put(ObjectName.class, OBJECT_NAME);
+        BUILT_IN.put(String[].class, STRING_ARRAY);
+        BUILT_IN.put(int[].class, INT_ARRAY);
+        BUILT_IN.put(byte[].class, BYTE_ARRAY);
+        BUILT_IN.put(Class[].class, CLASS_ARRAY);
+    }
+
+    private TextCodecs() {
+
+    }
+
+    /**
+     * Find the codec of a type.
+     *
+     * @param type the type
+     * @return the codec, or null when the type has neither a built in codec nor a PropertyEditor
+     */
+    public static TextCodec find(Class<?> type) {
+
+        TextCodec codec = CODECS.get(type);
+        return codec == NONE ? null : codec;
+    }
+
+    /**
+     * Forget the codec found for a type, so the next lookup sees a newly registered editor.
+     *
+     * @param type the type
+     */
+    public static void forget(Class<?> type) {
+
+        CODECS.remove(type);
+    }
+
+    private static void builtIn(TextCodec codec, Class<?> primitive, Class<?> wrapper) {
+
+        BUILT_IN.put(primitive, codec);
+        BUILT_IN.put(wrapper, codec == CHARACTER ? codec : nullable(codec));
+    }
+
+    /**
+     * A codec that decodes "null" and blank text as null and otherwise delegates
+     */
+    private static TextCodec nullable(final TextCodec codec) {
+
+        return new TextCodec() {
+
+            public String encode(Object value) {
+
+                return codec.encode(value);
+            }
+
+            public Object decode(String text) {
+
+                return PropertyEditors.isNull(text) ? null : codec.decode(text);
+            }
+        };
+    }
+
+    /**
+     * A codec that passes null through and otherwise applies the given functions
+     */
+    private static TextCodec codec(final Function<String, Object> decoder, final Function<Object, String> encoder) {
+
+        return new TextCodec() {
+
+            public String encode(Object value) {
+
+                return value == null ? null : encoder.apply(value);
+            }
+
+            public Object decode(String text) {
+
+                return text == null ? null : decoder.apply(text);
+            }
+        };
+    }
+
+    /**
+     * Converts through a PropertyEditor of PropertyEditorManager
+     */
+    private static class EditorCodec implements TextCodec {
+
+        private final Class<?> type;
+
+        EditorCodec(Class<?> type) {
+
+            this.type = type;
+        }
+
+        public String encode(Object value) {
+
+            PropertyEditor editor = PropertyEditorManager.findEditor(type);
+            editor.setValue(value);
+            return editor.getAsText();
+        }
+
+        public Object decode(String text) {
+
+            PropertyEditor editor = PropertyEditorManager.findEditor(type);
+            editor.setAsText(text);
+            return editor.getValue();
+        }
+    }
+
+}
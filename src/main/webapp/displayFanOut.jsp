@@ -0,0 +1,171 @@
+<?xml version="1.0"?>
+<%@page contentType="text/html"
+        import="java.io.IOException,
+                java.net.InetAddress,
+                java.net.URLEncoder,
+                java.util.List,
+                java.util.Map,
+                javax.management.ObjectName,
+                io.github.cziesman.jmxconsole.control.AttrUpdateInfo,
+                io.github.cziesman.jmxconsole.control.OpResultInfo,
+                io.github.cziesman.jmxconsole.control.FanOut,
+                io.github.cziesman.jmxconsole.control.Server,
+                io.github.cziesman.jmxconsole.util.editor.TextCodec,
+                io.github.cziesman.jmxconsole.util.editor.TextCodecs"
+        %>
+<%
+    String hostname = "";
+    try {
+        hostname = InetAddress.getLocalHost().getHostName();
+    } catch (IOException e) {
+    }
+%>
+
+<%!
+    /**
+     * Translate HTML tags and single and double quotes.
+     */
+    public String translateMetaCharacters(Object value) {
+
+        if (value == null) {
+            return null;
+        }
+        String s = String.valueOf(value);
+        String sanitizedName = s.replace("&", "&amp;");
+        sanitizedName = sanitizedName.replace("<", "&lt;");
+        sanitizedName = sanitizedName.replace(">", "&gt;");
+        sanitizedName = sanitizedName.replace("\"", "&quot;");
+        sanitizedName = sanitizedName.replace("\'", "&apos;");
+        return sanitizedName;
+    }
+
+    private String encode(Object value) {
+
+        if (value == null) {
+            return "";
+        }
+        TextCodec codec = TextCodecs.find(value.getClass());
+        return codec != null ? codec.encode(value) : value.toString();
+    }
+
+    private String message(Throwable failure) {
+
+        return String.valueOf(failure.getMessage() != null ? failure.getMessage() : failure);
+    }
+%>
+
+<!DOCTYPE html
+PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
+"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd">
+
+<html>
+<head>
+    <title><%= request.getAttribute("methodName") != null ? "Operation Results" : "Attribute Update Results" %></title>
+    <link rel="stylesheet" href="style_master.css" type="text/css"/>
+    <meta http-equiv="cache-control" content="no-cache"/>
+</head>
+<%
+    List<FanOut.Target> targets = (List<FanOut.Target>) request.getAttribute("targets");
+    if (targets == null) {
+%>
+<jsp:forward page="/"/>
+<%
+    }
+    String methodName = (String) request.getAttribute("methodName");
+    Map<String, String> attributes = (Map<String, String>) request.getAttribute("attributes");
+    String description = methodName != null ? methodName : "Setting " + String.join(", ", attributes.keySet());
+    String pattern = (String) request.getAttribute("pattern");
+    int parallelism = (Integer) request.getAttribute("parallelism");
+    long timeout = (Long) request.getAttribute("timeout");
+%>
+<body leftmargin="10" rightmargin="10" topmargin="10">
+
+<table width="100%" cellspacing="0" cellpadding="0" border="0" align="center">
+    <tr>
+        <td height="105" align="center"><h1><%= methodName != null ? "JMX MBean Operation View" : "JMX MBean Attribute Update View" %></h1><%= hostname %>
+        </td>
+        <td height="105" align="center" width="300">
+            <p>
+                <input type="button" value="Back to Agent"
+                       onClick="javascript:location='HtmlAdaptor?action=displayMBeans'"/>
+            </p>
+        </td>
+    </tr>
+</table>
+
+<p>
+    <%= translateMetaCharacters(description) %> on the <%= targets.size() %> MBeans matching
+    <%= translateMetaCharacters(pattern) %>, <%= parallelism %> at a time<%= timeout > 0 ? ", waiting at most " + timeout + " ms for each" : "" %>
+</p>
+
+<table width="100%" cellspacing="1" cellpadding="1" border="1" align="center">
+    <tr>
+        <th>MBean</th>
+        <th>Outcome</th>
+        <th>Time (ms)</th>
+        <th>Result</th>
+    </tr>
+    <%
+        // each row is flushed as soon as the outcome of its mbean is known
+        out.flush();
+        final JspWriter rows = out;
+        final int[] failed = new int[1];
+        final int[] timedOut = new int[1];
+        FanOut.Listener listener = new FanOut.Listener() {
+
+            public void completed(ObjectName name, Object result, Throwable failure, long millis) throws IOException {
+
+                String text;
+                if (failure != null) {
+                    text = message(failure);
+                } else if (result instanceof AttrUpdateInfo[]) {
+                    // an attribute update fails when any of its attributes was not set
+                    StringBuilder lines = new StringBuilder();
+                    for (AttrUpdateInfo update : (AttrUpdateInfo[]) result) {
+                        if (update.throwable != null) {
+                            failure = update.throwable;
+                            lines.append("Failed ").append(update.name).append(": ").append(message(update.throwable)).append('\n');
+                        } else {
+                            lines.append("Set ").append(update.name).append(" = ").append(encode(update.value)).append('\n');
+                        }
+                    }
+                    text = lines.toString();
+                } else {
+                    text = encode(((OpResultInfo) result).result);
+                }
+                if (failure != null) {
+                    failed[0]++;
+                }
+                row(name, failure != null ? " class='error'>failed" : ">ok", millis, text);
+            }
+
+            public void timedOut(ObjectName name, long millis) throws IOException {
+
+                // the call was interrupted, but it may have taken effect already
+                timedOut[0]++;
+                row(name, " class='error'>timed out (outcome unknown)", millis, "No outcome after " + timeout + " ms");
+            }
+
+            private void row(ObjectName name, String outcome, long millis, String text) throws IOException {
+
+                rows.println("  <tr>");
+                rows.println("   <td><a href='HtmlAdaptor?action=inspectMBean&amp;name=" + URLEncoder.encode(name.toString(), "UTF-8") + "'>"
+                        + translateMetaCharacters(name) + "</a></td>");
+                rows.println("   <td" + outcome + "</td>");
+                rows.println("   <td>" + millis + "</td>");
+                rows.println("   <td><pre>" + translateMetaCharacters(text) + "</pre></td>");
+                rows.println("  </tr>");
+                rows.flush();
+            }
+        };
+        try {
+            Server.getFanOut().invoke(targets, parallelism, timeout, listener);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    %>
+</table>
+
+<p><%= targets.size() - failed[0] - timedOut[0] %> succeeded, <%= failed[0] %> failed<%= timedOut[0] > 0 ? ", " + timedOut[0] + " timed out (outcome unknown)" : "" %></p>
+</body>
+</html>
@@ -0,0 +1,94 @@
+<?xml version="1.0"?>
+<%@page contentType="text/html"
+        import="java.io.IOException,
+                java.net.InetAddress,
+                java.util.Date,
+                io.github.cziesman.jmxconsole.control.OperationJobs"
+        %>
+<%
+    String hostname = "";
+    try {
+        hostname = InetAddress.getLocalHost().getHostName();
+    } catch (IOException e) {
+    }
+    OperationJobs.Job job = (OperationJobs.Job) request.getAttribute("job");
+    if (job == null) {
+%>
+<jsp:forward page="/"/>
+<%
+    }
+    String name = request.getParameter("name");
+    String jobUrl = "HtmlAdaptor?action=job&amp;id=" + job.getId() + "&amp;name=" + java.net.URLEncoder.encode(name, "UTF-8");
+%>
+
+<!DOCTYPE html
+PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
+"http://www.w3.org/TR/xhtml1/DTD/xhtml1-transitional.dtd">
+
+<html>
+<head>
+    <title>Operation Job</title>
+    <link rel="stylesheet" href="style_master.css" type="text/css"/>
+    <meta http-equiv="cache-control" content="no-cache"/>
+    <%
+        if (!job.isDone()) {
+            out.println("<meta http-equiv='refresh' content='2;url=" + jobUrl + "'/>");
+        }
+    %>
+</head>
+
+<body leftmargin="10" rightmargin="10" topmargin="10">
+
+<table width="100%" cellspacing="0" cellpadding="0" border="0" align="center">
+    <tr>
+        <td height="105" align="center"><h1>JMX MBean Operation Job</h1><%= hostname %>
+        </td>
+        <td height="105" align="center" width="300">
+            <p>
+                <input type="button" value="Back to Agent"
+                       onClick="javascript:location='HtmlAdaptor?action=displayMBeans'"/>
+                <input type="button" value="Back to MBean"
+                       onClick="javascript:location='HtmlAdaptor?action=inspectMBean&amp;name=<%= name %>'"/>
+            </p>
+        </td>
+    </tr>
+</table>
+
+<table cellspacing="1" cellpadding="1" border="1">
+    <tr>
+        <th>Operation</th>
+        <td><%= job.getOpName() %>
+        </td>
+    </tr>
+    <tr>
+        <th>Started</th>
+        <td><%= new Date(job.getStarted()) %>
+        </td>
+    </tr>
+    <tr>
+        <th>State</th>
+        <td>
+            <%
+                if (job.isCancelled()) {
+                    out.println("Cancelled");
+                } else {
+                    out.println("Running for " + ((System.currentTimeMillis() - job.getStarted()) / 1000) + " s");
+                }
+            %>
+        </td>
+    </tr>
+</table>
+<%
+    if (!job.isDone()) {
+%>
+<form method="post" action="HtmlAdaptor">
+    <input type="hidden" name="action" value="cancelJob"/>
+    <input type="hidden" name="id" value="<%= job.getId() %>"/>
+    <input type="hidden" name="name" value="<%= name %>"/>
+    <p><input type="submit" value="Cancel Operation"/></p>
+</form>
+<%
+    }
+%>
+</body>
+</html>
@@ -1,7 +1,9 @@
 <?xml version="1.0"?>
 <%@page contentType="text/html" import="java.io.IOException,java.net.InetAddress,java.net.URLDecoder,java.net.URLEncoder" %>
 <%@ page import="java.util.Iterator" %>
+<%@ page import="java.util.List" %>
 <%@ page import="io.github.cziesman.jmxconsole.model.DomainData" %>
+<%@ page import="io.github.cziesman.jmxconsole.model.DomainSummary" %>
 <%@ page import="io.github.cziesman.jmxconsole.model.MBeanData" %>
 <%!
 
@@ -47,6 +49,7 @@
     </title>
     <link rel="stylesheet" href="style_master.css" type="text/css"/>
     <meta http-equiv="cache-control" content="no-cache"/>
+    <script type="text/javascript" src="suggest.js"></script>
 </head>
 
 <body>
@@ -60,7 +63,9 @@
         <td height="105" align="center" width="300" nowrap>
             <form action="HtmlAdaptor?action=displayMBeans" method="post" name="applyFilter" id="applyFilter">
                 ObjectName Filter (e.g.: "jboss:*", "*:service=invoker,*"):<br/>
-                <input type="text" name="filter" size="20" value="<%= request.getAttribute("filter")%>"/>
+                <input type="text" name="filter" size="20" value="<%= request.getAttribute("filter")%>"
+                       list="filterSuggestions" autocomplete="off"/>
+                <datalist id="filterSuggestions"></datalist>
                 <input type="submit" name="apply" value="Apply Filter"/>
                 <input type="button" onClick="javascript:location='HtmlAdaptor?filter='" value="Clear Filter"/>
                 <%
@@ -69,6 +74,16 @@
                     }
                 %>
             </form>
+            <script type="text/javascript">
+                attachSuggest(document.applyFilter.filter, document.getElementById('filterSuggestions'));
+            </script>
+            <form action="HtmlAdaptor" method="get" name="search" id="search">
+                <input type="hidden" name="action" value="search"/>
+                Search (e.g.: "orders", "datasource pool"):<br/>
+                <input type="text" name="query" size="20"
+                       value="<%= request.getAttribute("query") == null ? "" : translateMetaCharacters(request.getAttribute("query")) %>"/>
+                <input type="submit" value="Search"/>
+            </form>
             <%= new java.util.Date() %>
         </td>
     </tr>
@@ -77,31 +92,71 @@
 &nbsp;
 
 <%
-    out.println("<table width='100%' cellspacing='1' cellpadding='1' border='1'>");
-    Iterator mbeans = (Iterator) request.getAttribute("mbeans");
-    while (mbeans.hasNext()) {
-        DomainData domainData = (DomainData) mbeans.next();
+    List domains = (List) request.getAttribute("domains");
+    if (domains != null) {
+        out.println("<p><a href=\"HtmlAdaptor?action=displayMBeans&amp;view=all\">Show all MBeans</a></p>");
+        out.println("<table width='100%' cellspacing='1' cellpadding='1' border='1'>");
         out.println(" <tr>");
-        out.println("  <th style='text-align: left'>");
-        out.println(
-                "   <h2><a href=\"javascript:document.applyFilter.filter.value='" + domainData.getDomainName() + ":*';document.applyFilter.submit()\">" + domainData.getDomainName() + "</a></h2>");
-        out.println("  </th>");
+        out.println("  <th style='text-align: left'>Domain</th>");
+        out.println("  <th>MBeans</th>");
         out.println(" </tr>");
-        out.println(" <tr>");
-        out.println("  <td bgcolor='#D0D0D0'>");
-        out.println("    <ul>");
-        MBeanData[] data = domainData.getData();
-        for (int d = 0; d < data.length; d++) {
-            String name = data[d].getObjectName().toString().replaceAll("%(?![0-9a-fA-F]{2})", "%25");
-            String properties = translateMetaCharacters(data[d].getNameProperties()).replaceAll("%(?![0-9a-fA-F]{2})", "%25");
-            out.println("     <li><a href=\"HtmlAdaptor?action=inspectMBean&amp;name=" + URLEncoder.encode(name,
-                    "UTF-8") + "\">" + URLDecoder.decode(properties, "UTF-8") + "</a></li>");
+        for (int d = 0; d < domains.size(); d++) {
+            DomainSummary summary = (DomainSummary) domains.get(d);
+            out.println(" <tr>");
+            out.println(
+                    "  <td><a href=\"javascript:document.applyFilter.filter.value='" + summary.getDomainName() + ":*';document.applyFilter.submit()\">" + summary.getDomainName() + "</a></td>");
+            out.println("  <td align='right'>" + summary.getMBeanCount() + "</td>");
+            out.println(" </tr>");
+        }
+        out.println("</table>");
+    } else {
+        String filter = (String) request.getAttribute("filter");
+        if (request.getAttribute("query") != null) {
+            out.println("<p>MBeans matching <b>" + translateMetaCharacters(request.getAttribute("query")) + "</b></p>");
+        }
+        if (filter == null || filter.isEmpty()) {
+            out.println("<p><a href=\"HtmlAdaptor?action=displayMBeans&amp;view=summary\">Show domain summary</a></p>");
+        }
+        out.println("<table width='100%' cellspacing='1' cellpadding='1' border='1'>");
+        Iterator mbeans = (Iterator) request.getAttribute("mbeans");
+        while (mbeans.hasNext()) {
+            DomainData domainData = (DomainData) mbeans.next();
+            out.println(" <tr>");
+            out.println("  <th style='text-align: left'>");
+            out.println(
+                    "   <h2><a href=\"javascript:document.applyFilter.filter.value='" + domainData.getDomainName() + ":*';document.applyFilter.submit()\">" + domainData.getDomainName() + "</a></h2>");
+            out.println("  </th>");
+            out.println(" </tr>");
+            out.println(" <tr>");
+            out.println("  <td bgcolor='#D0D0D0'>");
+            out.println("    <ul>");
+            MBeanData[] data = domainData.getData();
+            for (int d = 0; d < data.length; d++) {
+                String name = data[d].getObjectName().toString().replaceAll("%(?![0-9a-fA-F]{2})", "%25");
+                String properties = translateMetaCharacters(data[d].getNameProperties()).replaceAll("%(?![0-9a-fA-F]{2})", "%25");
+                out.println("     <li><a href=\"HtmlAdaptor?action=inspectMBean&amp;name=" + URLEncoder.encode(name,
+                        "UTF-8") + "\">" + URLDecoder.decode(properties, "UTF-8") + "</a></li>");
+            }
+            out.println("   </ul>");
+            out.println("  </td>");
+            out.println(" </tr>");
+        }
+        out.println("</table>");
+
+        String cursor = request.getParameter("cursor");
+        String nextCursor = (String) request.getAttribute("nextCursor");
+        Object pageSize = request.getAttribute("pageSize");
+        if ((cursor != null && !cursor.isEmpty()) || nextCursor != null) {
+            out.println("<p align='center'>");
+            if (cursor != null && !cursor.isEmpty()) {
+                out.println(" <a href=\"HtmlAdaptor?action=displayMBeans&amp;view=all&amp;pageSize=" + pageSize + "\">First page</a>");
+            }
+            if (nextCursor != null) {
+                out.println(" <a href=\"HtmlAdaptor?action=displayMBeans&amp;view=all&amp;pageSize=" + pageSize + "&amp;cursor=" + nextCursor + "\">Next page</a>");
+            }
+            out.println("</p>");
         }
-        out.println("   </ul>");
-        out.println("  </td>");
-        out.println(" </tr>");
     }
-    out.println("</table>");
 %>
 
 </body>
@@ -1,9 +1,9 @@
 <?xml version="1.0"?>
 <%@page contentType="text/html"
-        import="java.beans.PropertyEditor,
-                java.io.IOException,
+        import="java.io.IOException,
                 java.net.InetAddress,
-                io.github.cziesman.jmxconsole.util.editor.PropertyEditors"
+                io.github.cziesman.jmxconsole.util.editor.TextCodec,
+                io.github.cziesman.jmxconsole.util.editor.TextCodecs"
         %>
 <%
     String hostname = "";
@@ -72,10 +72,9 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
     } else {
         String opResultString = null;
 
-        PropertyEditor propertyEditor = PropertyEditors.findEditor(opResultInfo.result.getClass());
-        if (propertyEditor != null) {
-            propertyEditor.setValue(opResultInfo.result);
-            opResultString = propertyEditor.getAsText();
+        TextCodec codec = TextCodecs.find(opResultInfo.result.getClass());
+        if (codec != null) {
+            opResultString = codec.encode(opResultInfo.result);
         } else {
             opResultString = opResultInfo.result.toString();
         }
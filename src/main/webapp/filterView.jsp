@@ -1,10 +1,11 @@
 <%@page contentType="text/html"
-        import="java.util.Iterator,io.github.cziesman.jmxconsole.control.Server,io.github.cziesman.jmxconsole.model.DomainData" %>
+        import="java.util.Iterator,io.github.cziesman.jmxconsole.control.Server,io.github.cziesman.jmxconsole.model.DomainSummary" %>
 <html>
 <head>
     <title>JBoss Object Index</title>
     <link rel="stylesheet" href="style_master.css" type="text/css">
     <meta http-equiv="cache-control" content="no-cache"/>
+    <script type="text/javascript" src="suggest.js"></script>
 </head>
 
 <body leftmargin="10" rightmargin="10" topmargin="10">
@@ -21,19 +22,31 @@
     <tr>
         <td><h2>Object Name Filter</h2></td>
     </tr>
+    <tr>
+        <td>
+            <form action="HtmlAdaptor" method="get" target="ObjectNodeView" name="applyFilter">
+                <input type="hidden" name="action" value="displayMBeans"/>
+                <input type="text" name="filter" size="20" list="filterSuggestions" autocomplete="off"/>
+                <datalist id="filterSuggestions"></datalist>
+                <input type="submit" value="Apply"/>
+            </form>
+            <script type="text/javascript">
+                attachSuggest(document.applyFilter.filter, document.getElementById('filterSuggestions'));
+            </script>
+        </td>
+    </tr>
     <tr>
         <td><h3><a href="HtmlAdaptor?action=displayMBeans&filter=" target="ObjectNodeView">Remove Object Name Filter</a>
         </h3></td>
     </tr>
     <%
-        Iterator mbeans = (Iterator) Server.getDomainData("");
-        int i = 0;
-        while (mbeans.hasNext()) {
-            DomainData domainData = (DomainData) mbeans.next();
+        Iterator domains = Server.getDomainSummaries().iterator();
+        while (domains.hasNext()) {
+            DomainSummary summary = (DomainSummary) domains.next();
             out.println(" <tr>");
             out.println("  <td>");
             out.println(
-                    "   <li><a href=\"HtmlAdaptor?action=displayMBeans&filter=" + domainData.getDomainName() + "\" target=\"ObjectNodeView\">" + domainData.getDomainName() + "</a></li>");
+                    "   <li><a href=\"HtmlAdaptor?action=displayMBeans&filter=" + summary.getDomainName() + "\" target=\"ObjectNodeView\">" + summary.getDomainName() + "</a> (" + summary.getMBeanCount() + ")</li>");
             out.println("  </td>");
             out.println(" </tr>");
         }
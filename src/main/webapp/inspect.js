@@ -0,0 +1,105 @@
+/*
+ * Loads the attribute values of the MBean inspector after the page has been rendered,
+ * from HtmlAdaptor?action=attributeValues. The value cells carry the attribute name in
+ * their data-attr attribute; they are requested in batches of batchSize, with up to
+ * parallelism batches in flight.
+ */
+function loadAttributeValues(name, batchSize, parallelism) {
+    var cells = document.querySelectorAll('td[data-attr]');
+    var batches = [];
+    for (var i = 0; i < cells.length; i += batchSize) {
+        batches.push(Array.prototype.slice.call(cells, i, i + batchSize));
+    }
+    var next = 0;
+
+    function load() {
+        if (next >= batches.length) {
+            return;
+        }
+        var batch = batches[next++];
+        var url = 'HtmlAdaptor?action=attributeValues&name=' + encodeURIComponent(name);
+        for (var j = 0; j < batch.length; j++) {
+            url += '&attr=' + encodeURIComponent(batch[j].getAttribute('data-attr'));
+        }
+        var xhr = new XMLHttpRequest();
+        xhr.open('GET', url, true);
+        xhr.onreadystatechange = function () {
+            if (xhr.readyState !== 4) {
+                return;
+            }
+            var values = xhr.status === 200 ? JSON.parse(xhr.responseText) : {};
+            for (var k = 0; k < batch.length; k++) {
+                var attr = batch[k].getAttribute('data-attr');
+                if (values.hasOwnProperty(attr)) {
+                    batch[k].innerHTML = values[attr];
+                } else {
+                    batch[k].innerHTML = "<span class='error'>Failed to load the value</span>";
+                }
+            }
+            load();
+        };
+        xhr.send(null);
+    }
+
+    for (var p = 0; p < parallelism; p++) {
+        load();
+    }
+}
+
+/*
+ * Loads the next slice of a value cut at the size limit, from the plain text answered by
+ * the href of the 'load more' link, and inserts it before the link. The link moves on to
+ * the following slice, or is removed once a slice shorter than X-Slice-Length ends the value.
+ */
+function loadAttributeSlice(link) {
+    var xhr = new XMLHttpRequest();
+    xhr.open('GET', link.href, true);
+    xhr.onreadystatechange = function () {
+        if (xhr.readyState !== 4) {
+            return;
+        }
+        if (xhr.status !== 200) {
+            link.className = 'error';
+            link.textContent = 'Failed to load more, retry';
+            return;
+        }
+        var text = xhr.responseText;
+        link.parentNode.insertBefore(document.createTextNode(text), link);
+        var sliceLength = parseInt(xhr.getResponseHeader('X-Slice-Length'), 10);
+        if (text.length < sliceLength) {
+            link.parentNode.removeChild(link);
+        } else {
+            var offset = parseInt(link.href.replace(/.*[?&]offset=(\d+).*/, '$1'), 10);
+            link.href = link.href.replace(/([?&]offset=)\d+/, '$1' + (offset + text.length));
+            link.className = 'more';
+            link.textContent = 'load more';
+        }
+    };
+    xhr.send(null);
+    return false;
+}
+
+/*
+ * Loads a nested item or another page of an Open MBean value from the href of the link and
+ * replaces the enclosing opendata block with it.
+ */
+function loadOpenData(link) {
+    var block = link.parentNode;
+    while (block && !(block.className && block.className.indexOf('opendata') >= 0 && block.tagName === 'DIV')) {
+        block = block.parentNode;
+    }
+    var xhr = new XMLHttpRequest();
+    xhr.open('GET', link.href, true);
+    xhr.onreadystatechange = function () {
+        if (xhr.readyState !== 4) {
+            return;
+        }
+        if (xhr.status !== 200 || !block) {
+            link.className = 'error';
+            return;
+        }
+        block.outerHTML = xhr.responseText;
+    };
+    xhr.send(null);
+    return false;
+}
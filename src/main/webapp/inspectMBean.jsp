@@ -1,8 +1,6 @@
 <?xml version="1.0"?>
 <%@page contentType="text/html"
         import="java.io.IOException,
-                java.io.StringWriter,
-                java.lang.reflect.Array,
                 java.net.InetAddress,
                 java.net.URLEncoder,
                 java.util.Comparator,
@@ -17,11 +15,10 @@
         %>
 <%@ page import="javax.management.ObjectName" %>
 <%@ page import="javax.management.modelmbean.ModelMBeanOperationInfo" %>
-<%@ page import="org.dom4j.io.HTMLWriter" %>
-<%@ page import="org.dom4j.tree.FlyweightCDATA" %>
 <%@ page import="io.github.cziesman.jmxconsole.control.AttrResultInfo" %>
-<%@ page import="io.github.cziesman.jmxconsole.control.Server" %>
-<%@ page import="io.github.cziesman.jmxconsole.util.editor.PropertyEditors" %>
+<%@ page import="io.github.cziesman.jmxconsole.control.AttrUpdateInfo" %>
+<%@ page import="io.github.cziesman.jmxconsole.html.AttributeValueRenderer" %>
+<%@ page import="io.github.cziesman.jmxconsole.html.Json" %>
 
 <%
     String hostname = "";
@@ -49,8 +46,6 @@
         }
     };
 
-    String sep = System.getProperty("line.separator", "\n");
-
     public String fixDescription(String desc) {
         if (desc == null || desc.equals("")) {
             return "(no description)";
@@ -58,33 +53,6 @@
         return desc;
     }
 
-    public String fixValue(Object value) {
-        if (value == null) return null;
-        String s = String.valueOf(value);
-        StringWriter sw = new StringWriter();
-        HTMLWriter hw = new HTMLWriter(sw);
-        try {
-            // hw.write(s); // strips whitespace
-            hw.write(new FlyweightCDATA(s));
-            s = sw.toString();
-        } catch (Exception e) {
-        }
-        return s;
-    }
-
-    public String fixValueForAttribute(Object value) {
-        if (value == null) return null;
-        String s = String.valueOf(value);
-        StringWriter sw = new StringWriter();
-        HTMLWriter hw = new HTMLWriter(sw);
-        try {
-            hw.write(s);
-            s = sw.toString();
-        } catch (Exception e) {
-        }
-        return s;
-    }
-
     /**
      * Translate HTML tags and single and double quotes.
      */
@@ -110,6 +78,7 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
     <title>MBean Inspector</title>
     <link rel="stylesheet" href="style_master.css" type="text/css"/>
     <meta http-equiv="cache-control" content="no-cache"/>
+    <script type="text/javascript" src="inspect.js"></script>
 </head>
 
 <jsp:useBean id='mbeanData' class='io.github.cziesman.jmxconsole.model.MBeanData' scope='request'/>
@@ -197,6 +166,22 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
 
 <!-- 2 -->
 <br/>
+<%
+    AttrUpdateInfo[] attrUpdates = (AttrUpdateInfo[]) request.getAttribute("attrUpdates");
+    if (attrUpdates != null && attrUpdates.length > 0) {
+        out.println("<ul>");
+        for (int u = 0; u < attrUpdates.length; u++) {
+            AttrUpdateInfo update = attrUpdates[u];
+            if (update.throwable == null) {
+                out.println(" <li>Set " + translateMetaCharacters(update.name) + "</li>");
+            } else {
+                out.println(" <li class='error'>Failed to set " + translateMetaCharacters(update.name) + ": "
+                        + translateMetaCharacters(String.valueOf(update.throwable.getMessage() != null ? update.throwable.getMessage() : update.throwable)) + "</li>");
+            }
+        }
+        out.println("</ul>");
+    }
+%>
 
 <form method="post" action="HtmlAdaptor">
     <input type="hidden" name="action" value="updateAttributes"/>
@@ -211,12 +196,11 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
         </tr>
         <%
             boolean hasWriteableAttribute = false;
+            AttrResultInfo[] attrResults = (AttrResultInfo[]) request.getAttribute("attrResults");
             for (int a = 0; a < attributeInfo.length; a++) {
                 MBeanAttributeInfo attrInfo = attributeInfo[a];
                 String attrName = attrInfo.getName();
                 String attrType = attrInfo.getType();
-                AttrResultInfo attrResult = Server.getMBeanAttributeResultInfo(objectNameString, attrInfo);
-                String attrValue = attrResult.getAsText();
                 String access = "";
                 if (attrInfo.isReadable()) access += "R";
                 if (attrInfo.isWritable()) {
@@ -229,67 +213,14 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
                 out.println("   <td align='center'>" + access + "</td>");
                 out.println("   <td>" + attrType + "</td>");
                 out.println("   <td>" + attrDescription + "</td>");
-                out.println("   <td>");
-                out.println("    <pre>");
-
-                if (attrInfo.isWritable()) {
-                    String readonly = attrResult.editor == null ? "class='readonly' readonly" : "class='writable'";
-                    if (attrType.equals("boolean") || attrType.equals("java.lang.Boolean")) {
-                        Boolean value = attrValue == null || "".equals(attrValue) ? null : Boolean.valueOf(attrValue);
-                        String trueChecked = (value == Boolean.TRUE ? "checked" : "");
-                        String falseChecked = (value == Boolean.FALSE ? "checked" : "");
-                        String naChecked = value == null ? "checked" : "";
-                        out.print("<input type='radio' name='" + attrName + "' value='True' " + trueChecked + "/>True");
-                        out.print(
-                                "<input type='radio' name='" + attrName + "' value='False' " + falseChecked + "/>False");
-                        // For wrappers, enable a 'null' selection
-                        if (attrType.equals("java.lang.Boolean") && PropertyEditors.isNullHandlingEnabled()) {
-                            out.print("<input type='radio' name='" + attrName + "' value='' " + naChecked + "/>True");
-                        }
-
-                    } else if (attrInfo.isReadable()) {
-                        attrValue = fixValueForAttribute(attrValue);
-                        if (String.valueOf(attrValue).indexOf(sep) == -1) {
-                            out.print(
-                                    "<input type='text' size='80' name='" + attrName + "' value='" + translateMetaCharacters(
-                                            attrValue) + "' " + readonly + "/>");
-                        } else {
-                            out.print(
-                                    "<textarea cols='80' rows='10' type='text' name='" + attrName + "' " + readonly + ">" + attrValue + "</textarea>");
-                        }
-                    } else {
-                        out.print("<input type='text' name='" + attrName + "' " + readonly + "/>");
-                    }
+                if (attrResults != null) {
+                    out.println("   <td>");
+                    AttributeValueRenderer.render(objectNameString, attrInfo, attrResults[a], out);
                 } else {
-                    if (attrType.equals("[Ljavax.management.ObjectName;")) {
-                        ObjectName[] names = (ObjectName[]) Server.getMBeanAttributeObject(objectNameString, attrName);
-                        if (names != null) {
-                            for (int i = 0; i < names.length; i++) {
-                                out.print(
-                                        "<p align='center'><a href='HtmlAdaptor?action=inspectMBean&name=" + URLEncoder.encode(
-                                                names[i] + "", "UTF-8") + ">" + names[i] + "</a></p>");
-                            }
-                        }
-                    } else if (attrType.startsWith("[")) {
-                        Object arrayObject = Server.getMBeanAttributeObject(objectNameString, attrName);
-                        if (arrayObject != null) {
-                            for (int i = 0; i < Array.getLength(arrayObject); ++i) {
-                                out.println(fixValue(Array.get(arrayObject, i)));
-                            }
-                        }
-                    } else {
-                        out.print(fixValue(attrValue));
-                    }
-                }
-
-                if (attrType.equals("javax.management.ObjectName")) {
-                    if (attrValue != null) {
-                        out.print(
-                                "<p align='center'><a href='HtmlAdaptor?action=inspectMBean&name=" + URLEncoder.encode(
-                                        attrValue, "UTF-8") + "'>View MBean</a></p>");
-                    }
+                    // filled in by loadAttributeValues
+                    out.println("   <td data-attr='" + translateMetaCharacters(attrName) + "'>");
+                    out.println("    <span class='pending'>loading...</span>");
                 }
-                out.println("    </pre>");
                 out.println("   </td>");
                 out.println("  </tr>");
             }
@@ -300,7 +231,27 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
             }
         %>
     </table>
+    <%
+        if (attrResults != null) {
+            out.println("    <input type='hidden' name='values' value='inline'/>");
+        }
+    %>
 </form>
+<%
+    if (attrResults == null) {
+%>
+<noscript>
+    <p>
+        <a href="HtmlAdaptor?action=inspectMBean&amp;name=<%= quotedObjectNameString %>&amp;values=inline">Show the attribute
+            values without JavaScript</a>
+    </p>
+</noscript>
+<script type="text/javascript">
+    loadAttributeValues(<% Json.writeString(out, objectNameString); %>, 4, 4);
+</script>
+<%
+    }
+%>
 
 <!-- 3 -->
 <br/>
@@ -365,6 +316,8 @@ PUBLIC "-//W3C//DTD XHTML 1.0 Transitional//EN"
                     out.println("     [no parameters]<BR>");
                 }
                 out.println("     <input type='submit' value='Invoke'/>");
+                out.println("     <input type='checkbox' name='async' value='true'/>in background");
+                out.println("     <br/>or on all MBeans matching <input type='text' name='pattern' size='30'/>");
                 out.println("    </form>");
                 out.println("  </td>");
                 out.println(" </tr>");
@@ -0,0 +1,37 @@
+/*
+ * Typeahead for the ObjectName filter inputs, backed by HtmlAdaptor?action=suggest.
+ * The suggestions are complete filter texts and are offered through a datalist.
+ */
+function attachSuggest(input, list) {
+    var pending = null;
+    var last = null;
+    input.onkeyup = function () {
+        var text = input.value;
+        if (text === last) {
+            return;
+        }
+        last = text;
+        if (pending !== null) {
+            pending.abort();
+        }
+        var xhr = new XMLHttpRequest();
+        pending = xhr;
+        xhr.open('GET', 'HtmlAdaptor?action=suggest&text=' + encodeURIComponent(text), true);
+        xhr.onreadystatechange = function () {
+            if (xhr.readyState !== 4 || xhr.status !== 200) {
+                return;
+            }
+            pending = null;
+            var suggestions = JSON.parse(xhr.responseText);
+            while (list.firstChild) {
+                list.removeChild(list.firstChild);
+            }
+            for (var i = 0; i < suggestions.length; i++) {
+                var option = document.createElement('option');
+                option.value = suggestions[i];
+                list.appendChild(option);
+            }
+        };
+        xhr.send(null);
+    };
+}